@@ -0,0 +1,182 @@
+package uk.ac.ed.inf.benchmarks;
+
+import uk.ac.ed.inf.FlightPath;
+import uk.ac.ed.inf.ilp.constant.SystemConstants;
+import uk.ac.ed.inf.ilp.data.CreditCardInformation;
+import uk.ac.ed.inf.ilp.data.LngLat;
+import uk.ac.ed.inf.ilp.data.NamedRegion;
+import uk.ac.ed.inf.ilp.data.Order;
+import uk.ac.ed.inf.ilp.data.Pizza;
+import uk.ac.ed.inf.ilp.data.Restaurant;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Fixed synthetic data for the benchmarks
+ * Everything is generated from fixed seeds, so every run measures exactly the same work
+ */
+public final class BenchmarkFixtures {
+
+    public static final LngLat APPLETON = new LngLat(-3.186874, 55.944494);
+
+    public static final LocalDate ORDER_DATE = LocalDate.of(2023, 11, 15);
+
+    private BenchmarkFixtures() {
+    }
+
+    /**
+     * The four no-fly zones around George Square used by the live service
+     */
+    public static NamedRegion[] edinburghNoFlyZones() {
+        return new NamedRegion[] {
+            region("George Square Area",
+                    -3.190578818321228, 55.94402412577528, -3.1899887323379517, 55.94284650540911,
+                    -3.187097311019897, 55.94328811724263, -3.187682032585144, 55.944477740393744),
+            region("Dr Elsie Inglis Quadrangle",
+                    -3.1907182931900024, 55.94519570234043, -3.1906163692474365, 55.94498241796357,
+                    -3.1900262832641597, 55.94507554227258, -3.190133571624756, 55.94529783810495),
+            region("Bristo Square Open Area",
+                    -3.189543485641479, 55.94552313663306, -3.189259171485901, 55.94544803726933,
+                    -3.189194798469543, 55.94519570234043, -3.188138008117676, 55.9452738061846,
+                    -3.1885510683059692, 55.946105902745614),
+            region("Bayes Central Area",
+                    -3.1876927614212036, 55.94520696732767, -3.187555968761444, 55.9449621408666,
+                    -3.186981976032257, 55.94505676722831, -3.1872327625751495, 55.94536993377657)
+        };
+    }
+
+    /**
+     * A dense layout of small square zones on a staggered grid around the base, with gaps to fly through
+     * @param count the number of zones
+     */
+    public static NamedRegion[] denseNoFlyZones(int count) {
+        Random random = new Random(42);
+        NamedRegion[] zones = new NamedRegion[count];
+        int side = (int) Math.ceil(Math.sqrt(count));
+        double spacing = 0.0012;
+        for (int i = 0; i < count; i++) {
+            double centreLng = APPLETON.lng() + ((i % side) - side / 2.0 + 0.5) * spacing + (i / side % 2) * spacing / 2;
+            double centreLat = APPLETON.lat() + ((i / side) - side / 2.0 + 0.5) * spacing;
+            double half = 0.0002 + random.nextDouble() * 0.0002;
+            zones[i] = region("Zone " + i,
+                    centreLng - half, centreLat - half, centreLng + half, centreLat - half,
+                    centreLng + half, centreLat + half, centreLng - half, centreLat + half);
+        }
+        return zones;
+    }
+
+    /**
+     * The central area as served by the REST API
+     */
+    public static NamedRegion centralArea() {
+        return region(SystemConstants.CENTRAL_REGION_NAME,
+                -3.192473, 55.946233, -3.192473, 55.942617, -3.184319, 55.942617, -3.184319, 55.946233);
+    }
+
+    /**
+     * A restaurant at the given distance from the base
+     * @param distance "near" (a few moves), "mid" (across George Square) or "far" (the west end)
+     */
+    public static LngLat restaurantLocation(String distance) {
+        switch (distance) {
+            case "near":
+                return new LngLat(-3.1838572025299072, 55.94449876875712);
+            case "mid":
+                return new LngLat(-3.1912869215011597, 55.945535152517735);
+            case "far":
+                return new LngLat(-3.202541470527649, 55.943284737579376);
+            default:
+                throw new IllegalArgumentException("unknown restaurant distance: " + distance);
+        }
+    }
+
+    /**
+     * Restaurants each with their own menu, open every day
+     * @param count the number of restaurants
+     */
+    public static Restaurant[] restaurants(int count) {
+        Random random = new Random(7);
+        Restaurant[] restaurants = new Restaurant[count];
+        for (int i = 0; i < count; i++) {
+            Pizza[] menu = new Pizza[3];
+            for (int j = 0; j < menu.length; j++) {
+                menu[j] = new Pizza("R" + i + " Pizza " + j, 900 + 100 * random.nextInt(6));
+            }
+            LngLat location = new LngLat(APPLETON.lng() + (random.nextDouble() - 0.5) * 0.02,
+                    APPLETON.lat() + (random.nextDouble() - 0.5) * 0.01);
+            restaurants[i] = new Restaurant("Restaurant " + i, location, DayOfWeek.values(), menu);
+        }
+        return restaurants;
+    }
+
+    /**
+     * A day of orders against the restaurants, about one in ten has one of the validation errors
+     * @param count the number of orders
+     * @param restaurants the restaurants the pizzas are ordered from
+     */
+    public static Order[] orders(int count, Restaurant[] restaurants) {
+        Random random = new Random(11);
+        Order[] orders = new Order[count];
+        for (int i = 0; i < count; i++) {
+            Restaurant restaurant = restaurants[random.nextInt(restaurants.length)];
+            Pizza[] pizzas = new Pizza[1 + random.nextInt(SystemConstants.MAX_PIZZAS_PER_ORDER)];
+            int total = SystemConstants.ORDER_CHARGE_IN_PENCE;
+            for (int j = 0; j < pizzas.length; j++) {
+                pizzas[j] = restaurant.menu()[random.nextInt(restaurant.menu().length)];
+                total += pizzas[j].priceInPence();
+            }
+
+            String cardNumber = String.format("%016d", Math.abs(random.nextLong()) % 10_000_000_000_000_000L);
+            String expiry = "12/99";
+            String cvv = String.format("%03d", random.nextInt(1000));
+            switch (random.nextInt(40)) {
+                case 0 -> cardNumber = cardNumber.substring(0, 12);
+                case 1 -> cvv = "1a3";
+                case 2 -> expiry = "01/20";
+                case 3 -> total += 1;
+                default -> { }
+            }
+
+            orders[i] = new Order(String.format("%08X", i), ORDER_DATE, total, pizzas,
+                    new CreditCardInformation(cardNumber, expiry, cvv));
+        }
+        return orders;
+    }
+
+    /**
+     * Round trip flightpaths for a day of deliveries, stored as FlightPaths as DayProcessor hands them to the writers
+     * @param orders the number of orders that were delivered
+     * @param movesPerOrder the number of moves in each flightpath
+     */
+    public static List<List<LngLat>> flightPaths(int orders, int movesPerOrder) {
+        List<List<LngLat>> paths = new ArrayList<>();
+        for (int i = 0; i < orders; i++) {
+            List<LngLat> path = new ArrayList<>();
+            double angle = Math.toRadians((i % 16) * 22.5);
+            for (int j = 0; j <= movesPerOrder / 2; j++) {
+                path.add(new LngLat(APPLETON.lng() + j * SystemConstants.DRONE_MOVE_DISTANCE * Math.cos(angle),
+                        APPLETON.lat() + j * SystemConstants.DRONE_MOVE_DISTANCE * Math.sin(angle)));
+            }
+            for (int j = movesPerOrder / 2; j >= 0; j--) {
+                path.add(path.get(j));
+            }
+            path.add(APPLETON);
+            paths.add(FlightPath.of(path));
+        }
+        return paths;
+    }
+
+    private static NamedRegion region(String name, double... coordinates) {
+        LngLat[] vertices = new LngLat[coordinates.length / 2 + 1];
+        for (int i = 0; i < coordinates.length / 2; i++) {
+            vertices[i] = new LngLat(coordinates[2 * i], coordinates[2 * i + 1]);
+        }
+        // regions from the REST API are closed, the last vertex repeats the first
+        vertices[vertices.length - 1] = vertices[0];
+        return new NamedRegion(name, vertices);
+    }
+}
@@ -0,0 +1,23 @@
+package uk.ac.ed.inf.benchmarks;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runs the PizzaDronz benchmarks with the gc profiler enabled, so every result also reports its allocation rate
+ * Takes the usual JMH command line, e.g. java -jar benchmarks.jar PathFindingBenchmark -p layout=dense
+ */
+public class BenchmarkRunner {
+
+    public static void main(String[] args) throws Exception {
+        Options commandLine = new CommandLineOptions(args);
+        Options options = new OptionsBuilder()
+                .parent(commandLine)
+                .addProfiler(GCProfiler.class)
+                .build();
+        new Runner(options).run();
+    }
+}
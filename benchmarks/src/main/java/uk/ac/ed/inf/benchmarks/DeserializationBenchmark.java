@@ -0,0 +1,107 @@
+package uk.ac.ed.inf.benchmarks;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import uk.ac.ed.inf.JsonMapping;
+import uk.ac.ed.inf.ilp.data.NamedRegion;
+import uk.ac.ed.inf.ilp.data.Order;
+import uk.ac.ed.inf.ilp.data.Restaurant;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Reading one day's REST responses, with a new ObjectMapper per endpoint as RestReader used to
+ * and with the shared JsonMapping readers
+ * The cold benchmarks run once per fresh JVM, so they include mapper construction and deserializer
+ * introspection, the warm ones show the steady cost in a long running process
+ */
+@State(Scope.Benchmark)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class DeserializationBenchmark {
+
+    @Param({"100", "10000"})
+    public int orderCount;
+
+    private byte[] ordersJson;
+    private byte[] restaurantsJson;
+    private byte[] noFlyZonesJson;
+    private byte[] centralAreaJson;
+
+    @Setup
+    public void setup() throws IOException {
+        ObjectMapper writer = new ObjectMapper()
+                .registerModule(new JavaTimeModule())
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+        Restaurant[] restaurants = BenchmarkFixtures.restaurants(16);
+        ordersJson = writer.writeValueAsBytes(BenchmarkFixtures.orders(orderCount, restaurants));
+        restaurantsJson = writer.writeValueAsBytes(restaurants);
+        noFlyZonesJson = writer.writeValueAsBytes(BenchmarkFixtures.edinburghNoFlyZones());
+        centralAreaJson = writer.writeValueAsBytes(BenchmarkFixtures.centralArea());
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @Warmup(iterations = 0)
+    @Measurement(iterations = 1)
+    @Fork(10)
+    public void coldFreshMappers(Blackhole blackhole) throws IOException {
+        readWithFreshMappers(blackhole);
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @Warmup(iterations = 0)
+    @Measurement(iterations = 1)
+    @Fork(10)
+    public void coldSharedReaders(Blackhole blackhole) throws IOException {
+        readWithSharedReaders(blackhole);
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @Warmup(iterations = 3, time = 2)
+    @Measurement(iterations = 5, time = 2)
+    @Fork(1)
+    public void warmFreshMappers(Blackhole blackhole) throws IOException {
+        readWithFreshMappers(blackhole);
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @Warmup(iterations = 3, time = 2)
+    @Measurement(iterations = 5, time = 2)
+    @Fork(1)
+    public void warmSharedReaders(Blackhole blackhole) throws IOException {
+        readWithSharedReaders(blackhole);
+    }
+
+    private void readWithFreshMappers(Blackhole blackhole) throws IOException {
+        ObjectMapper orderMapper = new ObjectMapper();
+        orderMapper.registerModule(new JavaTimeModule());
+        blackhole.consume(orderMapper.readValue(ordersJson, Order[].class));
+        blackhole.consume(new ObjectMapper().readValue(restaurantsJson, Restaurant[].class));
+        blackhole.consume(new ObjectMapper().readValue(noFlyZonesJson, NamedRegion[].class));
+        blackhole.consume(new ObjectMapper().readValue(centralAreaJson, NamedRegion.class));
+    }
+
+    private void readWithSharedReaders(Blackhole blackhole) throws IOException {
+        blackhole.consume(JsonMapping.ordersReader().<Order[]>readValue(ordersJson));
+        blackhole.consume(JsonMapping.restaurantsReader().<Restaurant[]>readValue(restaurantsJson));
+        blackhole.consume(JsonMapping.namedRegionsReader().<NamedRegion[]>readValue(noFlyZonesJson));
+        blackhole.consume(JsonMapping.namedRegionReader().<NamedRegion>readValue(centralAreaJson));
+    }
+}
@@ -0,0 +1,79 @@
+package uk.ac.ed.inf.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import uk.ac.ed.inf.MenuCatalogue;
+import uk.ac.ed.inf.OrderValidator;
+import uk.ac.ed.inf.ilp.constant.OrderValidationCode;
+import uk.ac.ed.inf.ilp.data.Order;
+import uk.ac.ed.inf.ilp.data.Restaurant;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Validation of a whole day of orders, from 10k to 1M orders, and of single valid orders
+ * With the gc profiler, validateValidOrder's gc.alloc.rate.norm is the bytes allocated per valid order
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class OrderValidatorBenchmark {
+
+    @Param({"10000", "100000", "1000000"})
+    public int orderCount;
+
+    @Param({"16"})
+    public int restaurantCount;
+
+    private Restaurant[] restaurants;
+    private Order[] orders;
+    private Order[] validOrders;
+    private MenuCatalogue menuCatalogue;
+    private OrderValidator orderValidator;
+    private int next;
+
+    @Setup
+    public void setup() {
+        restaurants = BenchmarkFixtures.restaurants(restaurantCount);
+        orders = BenchmarkFixtures.orders(orderCount, restaurants);
+        menuCatalogue = new MenuCatalogue(restaurants);
+        orderValidator = new OrderValidator();
+        validOrders = Arrays.stream(BenchmarkFixtures.orders(1024, restaurants))
+                .filter(order -> orderValidator.validateOrder(order, menuCatalogue).getOrderValidationCode() == OrderValidationCode.NO_ERROR)
+                .toArray(Order[]::new);
+    }
+
+    @Benchmark
+    public void validateDay(Blackhole blackhole) {
+        OrderValidator orderValidator = new OrderValidator();
+        for (Order order : orders) {
+            blackhole.consume(orderValidator.validateOrder(order, restaurants));
+        }
+    }
+
+    @Benchmark
+    public void validateDayInParallel(Blackhole blackhole) {
+        blackhole.consume(new OrderValidator().validateAll(orders, restaurants));
+    }
+
+    @Benchmark
+    public OrderValidationCode validateValidOrder() {
+        Order order = validOrders[next];
+        next = next + 1 == validOrders.length ? 0 : next + 1;
+        return orderValidator.validateOrder(order, menuCatalogue).getOrderValidationCode();
+    }
+}
@@ -0,0 +1,64 @@
+package uk.ac.ed.inf.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import uk.ac.ed.inf.PathFinding;
+import uk.ac.ed.inf.PreparedNoFlyZones;
+import uk.ac.ed.inf.ilp.data.LngLat;
+import uk.ac.ed.inf.ilp.data.NamedRegion;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Path finding from the base to restaurants at varying distances, around the real or a dense no-fly zone layout
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PathFindingBenchmark {
+
+    @Param({"near", "mid", "far"})
+    public String distance;
+
+    @Param({"edinburgh", "dense"})
+    public String layout;
+
+    private NamedRegion[] noFlyZones;
+    private PreparedNoFlyZones preparedNoFlyZones;
+    private LngLat goal;
+
+    @Setup
+    public void setup() {
+        noFlyZones = layout.equals("dense") ? BenchmarkFixtures.denseNoFlyZones(64) : BenchmarkFixtures.edinburghNoFlyZones();
+        preparedNoFlyZones = new PreparedNoFlyZones(noFlyZones);
+        goal = BenchmarkFixtures.restaurantLocation(distance);
+    }
+
+    @Benchmark
+    public List<LngLat> findPath() {
+        return PathFinding.findPath(BenchmarkFixtures.APPLETON, goal, preparedNoFlyZones);
+    }
+
+    @Benchmark
+    public List<LngLat> findLatticePath() {
+        return PathFinding.findLatticePath(BenchmarkFixtures.APPLETON, goal, preparedNoFlyZones);
+    }
+
+    @Benchmark
+    public List<LngLat> findLatticePathUnprepared() {
+        return PathFinding.findLatticePath(BenchmarkFixtures.APPLETON, goal, noFlyZones);
+    }
+}
@@ -0,0 +1,107 @@
+package uk.ac.ed.inf.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import uk.ac.ed.inf.LngLatHandler;
+import uk.ac.ed.inf.PreparedNoFlyZones;
+import uk.ac.ed.inf.RegionIndex;
+import uk.ac.ed.inf.ilp.data.LngLat;
+import uk.ac.ed.inf.ilp.data.NamedRegion;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Point-in-region queries over 4096 fixed points near the base, per query style
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RegionBenchmark {
+
+    private static final int POINTS = 4096;
+
+    @Param({"edinburgh", "dense"})
+    public String layout;
+
+    private final LngLatHandler lngLatHandler = new LngLatHandler();
+    private NamedRegion[] noFlyZones;
+    private PreparedNoFlyZones preparedNoFlyZones;
+    private RegionIndex centralIndex;
+    private NamedRegion centralArea;
+    private LngLat[] points;
+
+    @Setup
+    public void setup() {
+        noFlyZones = layout.equals("dense") ? BenchmarkFixtures.denseNoFlyZones(256) : BenchmarkFixtures.edinburghNoFlyZones();
+        preparedNoFlyZones = new PreparedNoFlyZones(noFlyZones);
+        centralArea = BenchmarkFixtures.centralArea();
+        centralIndex = new RegionIndex(new NamedRegion[] { centralArea });
+
+        Random random = new Random(3);
+        points = new LngLat[POINTS];
+        for (int i = 0; i < POINTS; i++) {
+            points[i] = new LngLat(BenchmarkFixtures.APPLETON.lng() + (random.nextDouble() - 0.5) * 0.012,
+                    BenchmarkFixtures.APPLETON.lat() + (random.nextDouble() - 0.5) * 0.008);
+        }
+    }
+
+    @Benchmark
+    public int isInRegionNoFlyZones() {
+        int inside = 0;
+        for (LngLat point : points) {
+            for (NamedRegion zone : noFlyZones) {
+                if (lngLatHandler.isInRegion(point, zone)) {
+                    inside++;
+                    break;
+                }
+            }
+        }
+        return inside;
+    }
+
+    @Benchmark
+    public int preparedNoFlyZones() {
+        int inside = 0;
+        for (LngLat point : points) {
+            if (preparedNoFlyZones.contains(point)) {
+                inside++;
+            }
+        }
+        return inside;
+    }
+
+    @Benchmark
+    public int isInRegionCentralArea() {
+        int inside = 0;
+        for (LngLat point : points) {
+            if (lngLatHandler.isInRegion(point, centralArea)) {
+                inside++;
+            }
+        }
+        return inside;
+    }
+
+    @Benchmark
+    public int regionIndexCentralArea() {
+        int inside = 0;
+        for (LngLat point : points) {
+            if (lngLatHandler.isInRegion(point, centralIndex)) {
+                inside++;
+            }
+        }
+        return inside;
+    }
+}
@@ -0,0 +1,85 @@
+package uk.ac.ed.inf.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import uk.ac.ed.inf.FlightPathExport;
+import uk.ac.ed.inf.GeoJsonConverter;
+import uk.ac.ed.inf.JsonConverter;
+import uk.ac.ed.inf.OrderValidator;
+import uk.ac.ed.inf.ilp.data.LngLat;
+import uk.ac.ed.inf.ilp.data.Order;
+import uk.ac.ed.inf.ilp.data.Restaurant;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The three result file writers for a day of deliveries with about 300 moves per order
+ * Files are written to resultfiles/ under the working directory with the date "benchmark"
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class WriterBenchmark {
+
+    private static final String DATE = "benchmark";
+
+    @Param({"50", "500"})
+    public int orderCount;
+
+    @Param({"300"})
+    public int movesPerOrder;
+
+    private List<Order> orders;
+    private List<List<LngLat>> flightPaths;
+
+    @Setup
+    public void setup() {
+        Restaurant[] restaurants = BenchmarkFixtures.restaurants(4);
+        Order[] dayOrders = BenchmarkFixtures.orders(orderCount, restaurants);
+        OrderValidator orderValidator = new OrderValidator();
+        for (Order order : dayOrders) {
+            orderValidator.validateOrder(order, restaurants);
+        }
+        orders = Arrays.asList(dayOrders);
+        flightPaths = BenchmarkFixtures.flightPaths(orderCount, movesPerOrder);
+    }
+
+    @Benchmark
+    public void writeDeliveries() {
+        JsonConverter.writeDeliveriesToFile(orders, DATE);
+    }
+
+    @Benchmark
+    public void writeFlightPath() {
+        JsonConverter.writeFlightPathToFile(flightPaths, orders, DATE);
+    }
+
+    @Benchmark
+    public void writeFlightPathBinary() {
+        FlightPathExport.writeFlightPathToFile(flightPaths, orders, DATE);
+    }
+
+    @Benchmark
+    public void writeGeoJson() {
+        GeoJsonConverter.generateFlightPathGeoJson(flightPaths, DATE);
+    }
+
+    @Benchmark
+    public void writeGeoJsonPerOrderTrimmed() {
+        GeoJsonConverter.generateFlightPathGeoJson(flightPaths, orders, DATE, true, 6);
+    }
+}
@@ -0,0 +1,384 @@
+package uk.ac.ed.inf;
+
+import uk.ac.ed.inf.ilp.constant.SystemConstants;
+import uk.ac.ed.inf.ilp.data.LngLat;
+import uk.ac.ed.inf.ilp.data.NamedRegion;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * A* search engine for the lattice search mode backed entirely by primitive arrays
+ * Nodes are int ids into parallel arrays, the open set is an indexed binary heap with decrease-key
+ * and lattice keys are mapped to node ids by an open-addressing long to int map
+ * All storage is kept between searches, so a warm engine does not allocate while searching
+ * An engine is not thread-safe, each planning thread should use its own
+ */
+public class AStarEngine {
+
+    private static final int INITIAL_CAPACITY = 1 << 12;
+
+    // node storage, indexed by node id
+    private double[] lng = new double[INITIAL_CAPACITY];
+    private double[] lat = new double[INITIAL_CAPACITY];
+    private double[] gScore = new double[INITIAL_CAPACITY];
+    private double[] fScore = new double[INITIAL_CAPACITY];
+    private int[] cameFrom = new int[INITIAL_CAPACITY];
+    // compass index of the move from cameFrom to the node
+    private byte[] moveDirection = new byte[INITIAL_CAPACITY];
+    private boolean[] closed = new boolean[INITIAL_CAPACITY];
+    private int nodeCount;
+
+    // open set, heap holds node ids and heapIndex holds each node's slot in the heap (-1 if not in it)
+    private int[] heap = new int[INITIAL_CAPACITY];
+    private int[] heapIndex = new int[INITIAL_CAPACITY];
+    private int heapSize;
+
+    private final LongIntMap nodeIds = new LongIntMap(INITIAL_CAPACITY);
+
+    // positions one move from the node being expanded, as lng/lat pairs
+    private final double[] neighbours = new double[2 * LngLatHandler.COMPASS_DIRECTIONS];
+
+    // goal of the current search
+    private double goalLng;
+    private double goalLat;
+
+    // counters used to check how much the engine allocates while searching
+    private long expansions;
+    private long allocations;
+
+    /**
+     * A* search over the lattice used by PathFinding.findLatticePath
+     * @param start the LngLat starting position of the drone for the path
+     * @param goal the LngLat end position of the drone for the path - drone need only be close to this
+     * @param noFlyZones the NamedRegion areas the done cannot enter
+     * @return a FlightPath for the drone to follow, with the direction of each move, or null if there is no path
+     */
+    public List<LngLat> findPath(LngLat start, LngLat goal, NamedRegion[] noFlyZones) {
+        return findPath(start, goal, new PreparedNoFlyZones(noFlyZones));
+    }
+
+    /**
+     * A* search over the lattice used by PathFinding.findLatticePath
+     * @param start the LngLat starting position of the drone for the path
+     * @param goal the LngLat end position of the drone for the path - drone need only be close to this
+     * @param noFlyZones the prepared areas the done cannot enter
+     * @return a FlightPath for the drone to follow, with the direction of each move, or null if there is no path
+     */
+    public List<LngLat> findPath(LngLat start, LngLat goal, PreparedNoFlyZones noFlyZones) {
+        if (noFlyZones.contains(start) || noFlyZones.contains(goal)) {
+            return null;
+        }
+
+        goalLng = goal.lng();
+        goalLat = goal.lat();
+
+        List<LngLat> path = search(start, noFlyZones);
+        if (path == null) {
+            System.out.println("No path found");
+        }
+        return path;
+    }
+
+    // runs the search towards the current goal, returning the path to the first position close to it
+    private List<LngLat> search(LngLat start, PreparedNoFlyZones noFlyZones) {
+        reset();
+
+        int startId = addNode(PathFinding.latticeKey(start.lng(), start.lat()), start.lng(), start.lat());
+        gScore[startId] = 0;
+        fScore[startId] = heuristic(start.lng(), start.lat());
+        cameFrom[startId] = -1;
+        push(startId);
+
+        while (heapSize > 0) {
+            int current = pop();
+            closed[current] = true;
+            expansions++;
+
+            double currentLng = lng[current];
+            double currentLat = lat[current];
+
+            // if the current position is close to the goal position, the path is found
+            if (heuristic(currentLng, currentLat) <= SystemConstants.DRONE_IS_CLOSE_DISTANCE) {
+                return reconstructPath(current);
+            }
+
+            LngLatHandler.fillNeighbours(currentLng, currentLat, neighbours);
+            for (int i = 0; i < LngLatHandler.COMPASS_DIRECTIONS; i++) {
+                double neighbourLng = neighbours[2 * i];
+                double neighbourLat = neighbours[2 * i + 1];
+
+                long key = PathFinding.latticeKey(neighbourLng, neighbourLat);
+                int neighbour = nodeIds.get(key);
+                if (neighbour >= 0 && closed[neighbour]) {
+                    continue;
+                }
+                if (noFlyZones.blocksMove(currentLng, currentLat, neighbourLng, neighbourLat)) {
+                    continue;
+                }
+
+                double tentativeGScore = gScore[current] + distance(currentLng, currentLat, neighbourLng, neighbourLat);
+
+                if (neighbour < 0) {
+                    neighbour = addNode(key, neighbourLng, neighbourLat);
+                }
+                else if (tentativeGScore >= gScore[neighbour]) {
+                    continue;
+                }
+
+                // records where the cell was reached from, the move taken, the cost and the position it was reached at
+                lng[neighbour] = neighbourLng;
+                lat[neighbour] = neighbourLat;
+                cameFrom[neighbour] = current;
+                moveDirection[neighbour] = (byte) i;
+                gScore[neighbour] = tentativeGScore;
+                fScore[neighbour] = tentativeGScore + heuristic(neighbourLng, neighbourLat);
+                if (heapIndex[neighbour] < 0) {
+                    push(neighbour);
+                }
+                else {
+                    siftUp(heapIndex[neighbour]);
+                }
+            }
+        }
+
+        return null;
+    }
+
+    // distance to the goal
+    private double heuristic(double nodeLng, double nodeLat) {
+        return distance(nodeLng, nodeLat, goalLng, goalLat);
+    }
+
+    /**
+     * @return the number of nodes expanded since the counters were last reset
+     */
+    public long getExpansionCount() {
+        return expansions;
+    }
+
+    /**
+     * Counts the arrays the engine itself has allocated while searching to grow its storage,
+     * not including the returned paths
+     * @return the number of allocations since the counters were last reset
+     */
+    public long getAllocationCount() {
+        return allocations;
+    }
+
+    /**
+     * @return the allocations made per expanded node since the counters were last reset
+     */
+    public double getAllocationsPerExpansion() {
+        return expansions == 0 ? 0 : (double) allocations / expansions;
+    }
+
+    /**
+     * Resets the expansion and allocation counters
+     */
+    public void resetCounters() {
+        expansions = 0;
+        allocations = 0;
+    }
+
+    // clears the previous search, all storage is kept for reuse
+    private void reset() {
+        nodeCount = 0;
+        heapSize = 0;
+        nodeIds.clear();
+    }
+
+    private int addNode(long key, double nodeLng, double nodeLat) {
+        if (nodeCount == lng.length) {
+            growNodes();
+        }
+        int id = nodeCount++;
+        lng[id] = nodeLng;
+        lat[id] = nodeLat;
+        closed[id] = false;
+        heapIndex[id] = -1;
+        if (nodeIds.put(key, id)) {
+            allocations += 3;
+        }
+        return id;
+    }
+
+    private void growNodes() {
+        int capacity = lng.length * 2;
+        lng = Arrays.copyOf(lng, capacity);
+        lat = Arrays.copyOf(lat, capacity);
+        gScore = Arrays.copyOf(gScore, capacity);
+        fScore = Arrays.copyOf(fScore, capacity);
+        cameFrom = Arrays.copyOf(cameFrom, capacity);
+        moveDirection = Arrays.copyOf(moveDirection, capacity);
+        closed = Arrays.copyOf(closed, capacity);
+        heap = Arrays.copyOf(heap, capacity);
+        heapIndex = Arrays.copyOf(heapIndex, capacity);
+        allocations += 9;
+    }
+
+    private static double distance(double startLng, double startLat, double endLng, double endLat) {
+        double x = startLng - endLng;
+        double y = startLat - endLat;
+        return Math.sqrt(x * x + y * y);
+    }
+
+    // walks back through cameFrom to build the path from the start, keeping the direction each move was taken in
+    private FlightPath reconstructPath(int current) {
+        int moves = 0;
+        for (int node = current; cameFrom[node] >= 0; node = cameFrom[node]) {
+            moves++;
+        }
+
+        double[] coordinates = new double[2 * (moves + 1)];
+        byte[] directions = new byte[moves];
+        for (int i = moves; i >= 0; i--) {
+            coordinates[2 * i] = lng[current];
+            coordinates[2 * i + 1] = lat[current];
+            if (i > 0) {
+                directions[i - 1] = moveDirection[current];
+            }
+            current = cameFrom[current];
+        }
+        return FlightPath.of(coordinates, directions);
+    }
+
+    private void push(int node) {
+        heap[heapSize] = node;
+        heapIndex[node] = heapSize;
+        siftUp(heapSize++);
+    }
+
+    private int pop() {
+        int top = heap[0];
+        heapIndex[top] = -1;
+        int last = heap[--heapSize];
+        if (heapSize > 0) {
+            heap[0] = last;
+            heapIndex[last] = 0;
+            siftDown(0);
+        }
+        return top;
+    }
+
+    private void siftUp(int index) {
+        int node = heap[index];
+        double cost = fScore[node];
+        while (index > 0) {
+            int parentIndex = (index - 1) >>> 1;
+            int parent = heap[parentIndex];
+            if (fScore[parent] <= cost) {
+                break;
+            }
+            heap[index] = parent;
+            heapIndex[parent] = index;
+            index = parentIndex;
+        }
+        heap[index] = node;
+        heapIndex[node] = index;
+    }
+
+    private void siftDown(int index) {
+        int node = heap[index];
+        double cost = fScore[node];
+        int half = heapSize >>> 1;
+        while (index < half) {
+            int child = 2 * index + 1;
+            int right = child + 1;
+            if (right < heapSize && fScore[heap[right]] < fScore[heap[child]]) {
+                child = right;
+            }
+            if (cost <= fScore[heap[child]]) {
+                break;
+            }
+            heap[index] = heap[child];
+            heapIndex[heap[index]] = index;
+            index = child;
+        }
+        heap[index] = node;
+        heapIndex[node] = index;
+    }
+
+    /**
+     * Open-addressing hash map from lattice keys to node ids with linear probing
+     * Slots are marked with the generation they were written in, so clearing is O(1)
+     */
+    private static final class LongIntMap {
+        private long[] keys;
+        private int[] values;
+        private int[] generations;
+        private int generation = 1;
+        private int size;
+        private int mask;
+
+        LongIntMap(int capacity) {
+            keys = new long[capacity];
+            values = new int[capacity];
+            generations = new int[capacity];
+            mask = capacity - 1;
+        }
+
+        int get(long key) {
+            int slot = slot(key);
+            while (generations[slot] == generation) {
+                if (keys[slot] == key) {
+                    return values[slot];
+                }
+                slot = (slot + 1) & mask;
+            }
+            return -1;
+        }
+
+        // returns true if the map had to grow to fit the new entry
+        boolean put(long key, int value) {
+            boolean grown = false;
+            if (2 * (size + 1) > keys.length) {
+                rehash();
+                grown = true;
+            }
+            int slot = slot(key);
+            while (generations[slot] == generation) {
+                if (keys[slot] == key) {
+                    values[slot] = value;
+                    return grown;
+                }
+                slot = (slot + 1) & mask;
+            }
+            keys[slot] = key;
+            values[slot] = value;
+            generations[slot] = generation;
+            size++;
+            return grown;
+        }
+
+        void clear() {
+            size = 0;
+            generation++;
+        }
+
+        private int slot(long key) {
+            long hash = key * 0x9E3779B97F4A7C15L;
+            return (int) (hash ^ (hash >>> 32)) & mask;
+        }
+
+        private void rehash() {
+            long[] oldKeys = keys;
+            int[] oldValues = values;
+            int[] oldGenerations = generations;
+            int oldGeneration = generation;
+
+            keys = new long[oldKeys.length * 2];
+            values = new int[oldKeys.length * 2];
+            generations = new int[oldKeys.length * 2];
+            mask = keys.length - 1;
+            generation = 1;
+            size = 0;
+
+            for (int i = 0; i < oldKeys.length; i++) {
+                if (oldGenerations[i] == oldGeneration) {
+                    put(oldKeys[i], oldValues[i]);
+                }
+            }
+        }
+    }
+}
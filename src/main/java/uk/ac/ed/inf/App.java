@@ -1,25 +1,35 @@
 package uk.ac.ed.inf;
 
-import uk.ac.ed.inf.ilp.constant.OrderStatus;
 import uk.ac.ed.inf.ilp.data.LngLat;
 import uk.ac.ed.inf.ilp.data.NamedRegion;
-import uk.ac.ed.inf.ilp.data.Order;
 import uk.ac.ed.inf.ilp.data.Restaurant;
 
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
+import java.io.IOException;
+import java.io.InputStream;
 import java.net.URI;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 
 public class App 
 {
 
     /**
-     * Runs PizzaDronz for the given date and server URL
+     * System property choosing whether orders are validated as they stream in, true by default
+     * Set it to false to read the whole day first and validate it in parallel
+     */
+    public static final String STREAM_ORDERS_PROPERTY = "pizzadronz.orders.streaming";
+
+    /**
+     * Runs PizzaDronz for the given date, or range of dates, and server URL
      * Checks validity of orders obtained from the URL
      * Creates flightpaths for those that satisfy OrderValidator
-     * Creates json and geojson files for the relevant information
-     * @param args the date [0] and server URL [1]
+     * Creates json and geojson files for the relevant information, one set per date
+     * A range such as 2023-11-01..2023-11-30 fetches the reference data once and processes the days together
+     * With the arguments serve [port] [url] it runs as a PlanningServer instead
+     * @param args the date or date range [0] and server URL [1]
      */
     public static void main(String[] args) {
 
@@ -44,19 +54,48 @@ public class App
         //     System.exit(1);
         // }
 
-        if (!checkArguments(args)) {
+        // the output sink is checked first, so a bad setting fails before anything is fetched
+        try {
+            OutputSink.configured();
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.exit(1);
+        }
+
+        // serve <port> <url> keeps PizzaDronz running as a planning service instead of planning one run
+        if (args.length == 3 && args[0].equals("serve")) {
+            serve(args[1], args[2]);
+            return;
+        }
+
+        if (!checkArgumentFormat(args)) {
+            System.exit(1);
+        }
+
+        List<String> dates = getDates(args[0]);
+        String url = args[1];
+
+        // every endpoint is requested at once, including isAlive, instead of one round trip after another
+        // the reference data is fetched once, whatever the number of days
+        DaySnapshot snapshot = null;
+        try {
+            snapshot = RestReader.fetchDaySnapshot(dates.get(0), url).join();
+        } catch (CompletionException e) {
+            System.err.println("Unable to obtain response from REST API. Your URL may not be correct, please try again\n" +
+                    "Error code: " + e.getCause());
+            System.exit(1);
+        }
+
+        if (!snapshot.isAlive()) {
+            System.err.println("The server is not alive. Expected a valid URL, got " + url);
             System.exit(1);
         }
 
         System.out.println("Processing requested orders for " + args[0]);
 
-        OrderValidator orderValidator = new OrderValidator();
-        Order[] orders = RestReader.getRequestedOrders(args[0], args[1]);
-        List<Order> validOrders = new ArrayList<>();
-        List<Order> allOrders = new ArrayList<>();
-        Restaurant[] restaurants = RestReader.getRequestedRestaurants(args[1]);
-        NamedRegion[] noFLyZones = RestReader.getRequestedNoFlyZones(args[1]);
-        NamedRegion centralArea = RestReader.getRequestedCentralArea(args[1]);
+        Restaurant[] restaurants = snapshot.getRestaurants();
+        NamedRegion[] noFLyZones = snapshot.getNoFlyZones();
+        NamedRegion centralArea = snapshot.getCentralArea();
 
         // checks to make sure valid data can be used in the program
         if (restaurants.length == 0) {
@@ -74,54 +113,91 @@ public class App
             System.exit(1);
         }
 
+        DayProcessor dayProcessor = new DayProcessor(getStartPosition(), restaurants, noFLyZones, centralArea);
+        boolean streaming = Boolean.parseBoolean(System.getProperty(STREAM_ORDERS_PROPERTY, "true"));
+
         System.out.println("Validating Orders");
 
-        // checks all orders for validity, and adds them to the relevant lists
-        for (Order order : orders) {
-            allOrders.add(order);
-            orderValidator.validateOrder(order, restaurants);
-            if (order.getOrderStatus() == OrderStatus.VALID_BUT_NOT_DELIVERED) {
-                validOrders.add(order);
-            }
+        // the first day's orders come with the snapshot, the other days are requested together and validated as they arrive
+        List<CompletableFuture<DayProcessor.DayOrders>> validating = new ArrayList<>();
+        for (int i = 0; i < dates.size(); i++) {
+            String date = dates.get(i);
+            CompletableFuture<InputStream> ordersBody = i == 0
+                    ? CompletableFuture.completedFuture(snapshot.getOrdersBody())
+                    : RestReader.requestOrders(date, url);
+            validating.add(ordersBody.thenApplyAsync(body -> {
+                try {
+                    return dayProcessor.validate(date, body, streaming);
+                } catch (IOException e) {
+                    throw new CompletionException(e);
+                }
+            }));
         }
 
-        // storage for orders
-        List<List<LngLat>> pathList = new ArrayList<>();
-        HashMap<String, List<LngLat>> restaurantPaths = new HashMap<>();
-        HashMap<Order, List<LngLat>> orderPaths = new HashMap<>();
+        List<DayProcessor.DayOrders> days = new ArrayList<>();
+        try {
+            for (CompletableFuture<DayProcessor.DayOrders> day : validating) {
+                days.add(day.join());
+            }
+        } catch (CompletionException e) {
+            System.err.println("Unable to read ObjectMapper value for Orders. \nError code: " + e.getCause());
+            System.exit(1);
+        }
 
         System.out.println("Mapping Flightpaths");
 
-        // creates flightpaths for valid orders
-        for (Order order : validOrders) {
-            LngLat startPosition = getStartPosition();
-            LngLat endPosition = orderValidator.oneRestaurant(order.getPizzasInOrder(), restaurants).location();
-            String restaurantName = orderValidator.oneRestaurant(order.getPizzasInOrder(), restaurants).name();
-            if (!restaurantPaths.containsKey(restaurantName)) {
-                List<LngLat> pathTo = PathFinding.findPath(startPosition, endPosition, noFLyZones);
-                List<LngLat> fullPath = PathCombiner.fullPath(pathTo);
-                restaurantPaths.put(restaurantName, fullPath);
-            }
-            List<LngLat> path = restaurantPaths.get(restaurantName);
-
-            // set the order status to delivered if a path is found
-            // orderPaths map used to ensure correct path given to correct order
-            if (path != null) {
-                order.setOrderStatus(OrderStatus.DELIVERED);
-                pathList.add(path);
-                orderPaths.put(order, path);
-            }
+        // plans the paths to every restaurant with a valid order on any day, reusing cached paths where it can
+        dayProcessor.planPaths(days);
+
+        // creates json and geojson files for the relevant information, one set per day
+        days.parallelStream().forEach(day -> {
+            System.out.println("Creating files for " + day.getDate());
+            dayProcessor.deliver(day);
+        });
+
+        System.out.println("PizzaDronz is ready for delivery!");
+    }
+
+    /**
+     * Starts the PlanningServer, which keeps the reference data and planner warm between requests
+     * @param port the port argument to listen on
+     * @param url the server URL argument
+     */
+    private static void serve(String port, String url) {
+        if (!port.matches("[0-9]{1,5}")) {
+            System.err.println("Incorrect port. Expected a number, got " + port);
+            System.exit(1);
+        }
+        if (!validURL(url)) {
+            System.err.println("Incorrect URL format. Expected a valid URL, got " + url);
+            System.exit(1);
         }
 
-        System.out.println("Creating files for " + args[0]);
+        try {
+            PlanningServer planningServer = new PlanningServer(getStartPosition(), url);
+            int listening = planningServer.start(Integer.parseInt(port));
+            System.out.println("PizzaDronz planning service listening on port " + listening);
+        } catch (IOException e) {
+            System.err.println(e.getMessage());
+            System.exit(1);
+        }
+    }
 
-        // creates json and geojson files for the relevant information
-        GeoJsonConverter.generateFlightPathGeoJson(pathList, args[0]);
-        JsonConverter.writeDeliveriesToFile(allOrders, args[0]);
-        JsonConverter.writeFlightPathToFile(pathList, validOrders, args[0]);
-        //JsonConverter.writeFlightPathToFile(orderPaths, args[0]);
+    /**
+     * Expands the date argument into the dates to process
+     * @param dates a single date, or an inclusive range written as start..end
+     * @return the dates in order
+     */
+    private static List<String> getDates(String dates) {
+        String[] range = dates.split("\\.\\.", 2);
+        LocalDate start = LocalDate.parse(range[0]);
+        LocalDate end = range.length == 2 ? LocalDate.parse(range[1]) : start;
 
-        System.out.println("PizzaDronz is ready for delivery!");
+        List<String> days = new ArrayList<>();
+        for (LocalDate day = start; !day.isAfter(end); day = day.plusDays(1)) {
+            days.add(day.toString());
+        }
+        return days;
     }
 
     /**
@@ -149,6 +225,19 @@ public class App
         }
     }
 
+    /**
+     * Checks if the date argument is a single date or an inclusive range of dates, start..end
+     * @param dates the date argument to be checked
+     * @return true if every date is in the correct format and a range does not end before it starts, false otherwise
+     */
+    private static boolean validDates(String dates) {
+        String[] range = dates.split("\\.\\.", 2);
+        if (range.length == 1) {
+            return validDate(dates);
+        }
+        return validDate(range[0]) && validDate(range[1]) && !LocalDate.parse(range[1]).isBefore(LocalDate.parse(range[0]));
+    }
+
     /**
      * Checks if the URL is a valid URL
      * @param url the URL argument to be checked
@@ -169,26 +258,38 @@ public class App
     }
 
     private static boolean checkArguments(String[] args) {
-        if (args.length != 2) {
-            System.err.println("Incorrect number of arguments. Expected 2, got " + args.length);
+        if (!checkArgumentFormat(args)) {
+            return false;
+        }
+
+        if (!RestReader.getIsAlive(args[1])) {
+            System.err.println("The server is not alive. Expected a valid URL, got " + args[1]);
             //System.exit(1);
             return false;
         }
+        return true;
+    }
 
-        if (!validDate(args[0])) {
-            System.err.println("Incorrect date format. Expected YYYY-MM-DD, got " + args[0]);
+    /**
+     * Checks the arguments without contacting the server
+     * @param args the date [0] and server URL [1]
+     * @return true if there are two arguments, a valid date and a valid URL, false otherwise
+     */
+    private static boolean checkArgumentFormat(String[] args) {
+        if (args.length != 2) {
+            System.err.println("Incorrect number of arguments. Expected 2, got " + args.length);
             //System.exit(1);
             return false;
         }
 
-        if (!validURL(args[1])) {
-            System.err.println("Incorrect URL format. Expected a valid URL, got " + args[1]);
+        if (!validDates(args[0])) {
+            System.err.println("Incorrect date format. Expected YYYY-MM-DD or YYYY-MM-DD..YYYY-MM-DD, got " + args[0]);
             //System.exit(1);
             return false;
         }
 
-        if (!RestReader.getIsAlive(args[1])) {
-            System.err.println("The server is not alive. Expected a valid URL, got " + args[1]);
+        if (!validURL(args[1])) {
+            System.err.println("Incorrect URL format. Expected a valid URL, got " + args[1]);
             //System.exit(1);
             return false;
         }
@@ -0,0 +1,163 @@
+package uk.ac.ed.inf;
+
+import uk.ac.ed.inf.ilp.constant.OrderStatus;
+import uk.ac.ed.inf.ilp.data.LngLat;
+import uk.ac.ed.inf.ilp.data.NamedRegion;
+import uk.ac.ed.inf.ilp.data.Order;
+import uk.ac.ed.inf.ilp.data.Restaurant;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Validates, plans and writes the result files for one or more days against the same reference data
+ * The menu catalogue, prepared no-fly zones, path cache and flight planner are built once and shared by
+ * every day, so a batch of days only pays for them once.
+ * Days are handled in three steps: each day's orders are validated, the paths are planned, then each day's
+ * files are written. Validating and writing can run for several days at once
+ */
+public class DayProcessor {
+
+    private final MenuCatalogue menuCatalogue;
+    private final FlightPlanner flightPlanner;
+    private final Map<String, FlightPath> restaurantPaths = new ConcurrentHashMap<>();
+    private final boolean binaryExport = Boolean.getBoolean(FlightPathExport.EXPORT_PROPERTY);
+
+    /**
+     * Prepares the shared state for a run
+     * @param start the LngLat the drone starts from and returns to
+     * @param restaurants the defined restaurants
+     * @param noFlyZones the no-fly zones
+     * @param centralArea the central area
+     */
+    public DayProcessor(LngLat start, Restaurant[] restaurants, NamedRegion[] noFlyZones, NamedRegion centralArea) {
+        this.menuCatalogue = new MenuCatalogue(restaurants);
+        // no-fly zones are prepared once and shared by every path search
+        this.flightPlanner = new FlightPlanner(start, new PreparedNoFlyZones(noFlyZones),
+                new PathCache(noFlyZones, centralArea));
+    }
+
+    /**
+     * Reads and validates a day's orders
+     * @param date the date the orders are for
+     * @param ordersBody the json array of the day's orders, closed once read
+     * @param streaming true to validate each order as it is parsed, false to read the whole day and validate it in parallel
+     * @return the day's orders, split into all and valid orders
+     * @throws IOException if the orders cannot be read
+     */
+    public DayOrders validate(String date, InputStream ordersBody, boolean streaming) throws IOException {
+        DayOrders day = new DayOrders(date);
+        // a validator is made for each day, so a long-running service checks card expiry against the current month
+        OrderValidator orderValidator = new OrderValidator();
+
+        try (InputStream body = ordersBody) {
+            if (streaming) {
+                // each order is validated as soon as it is parsed, while the rest of the response is still arriving
+                RestReader.readOrders(body, order -> day.add(order, orderValidator.validateOrderRestaurant(order, menuCatalogue)));
+            }
+            else {
+                // checks all orders for validity in parallel, then adds them to the relevant lists in order
+                List<Order> orders = new ArrayList<>();
+                RestReader.readOrders(body, orders::add);
+                ValidationReport report = orderValidator.validateAll(orders.toArray(new Order[0]), menuCatalogue);
+                for (int i = 0; i < report.getOrders().length; i++) {
+                    day.add(report.getOrders()[i], report.getRestaurant(i));
+                }
+            }
+        }
+        return day;
+    }
+
+    /**
+     * Plans the round trip to every restaurant with a valid order that day, reusing cached paths where it can
+     * Days are planned one at a time in date order, so a batch plans exactly the paths that running
+     * the days one after another would, and the shared cache means later days mostly reuse earlier paths
+     * @param days the validated days, in date order
+     */
+    public void planPaths(List<DayOrders> days) {
+        for (DayOrders day : days) {
+            planPaths(day);
+        }
+    }
+
+    private void planPaths(DayOrders day) {
+        for (Map.Entry<String, List<LngLat>> pathTo : flightPlanner.planPaths(day.orderRestaurants).entrySet()) {
+            if (pathTo.getValue() != null) {
+                restaurantPaths.putIfAbsent(pathTo.getKey(), PathCombiner.fullPath(pathTo.getValue()));
+            }
+        }
+    }
+
+    /**
+     * Marks the day's orders that have a path as delivered and writes the day's result files
+     * The paths must already have been planned with planPaths
+     * @param day the validated day
+     */
+    public void deliver(DayOrders day) {
+        // storage for orders
+        List<List<LngLat>> pathList = new ArrayList<>();
+        List<Order> deliveredOrders = new ArrayList<>();
+
+        // creates flightpaths for valid orders
+        for (int i = 0; i < day.validOrders.size(); i++) {
+            Order order = day.validOrders.get(i);
+            FlightPath path = restaurantPaths.get(day.orderRestaurants.get(i).name());
+
+            // set the order status to delivered if a path is found
+            // orders to the same restaurant share its FlightPath, so nothing is copied per order
+            if (path != null) {
+                order.setOrderStatus(OrderStatus.DELIVERED);
+                pathList.add(path);
+                deliveredOrders.add(order);
+            }
+        }
+
+        // creates json and geojson files for the relevant information
+        GeoJsonConverter.generateFlightPathGeoJson(pathList, deliveredOrders, day.date);
+        JsonConverter.writeDeliveriesToFile(day.allOrders, day.date);
+        // path i belongs to delivered order i, valid orders without a path have no moves
+        JsonConverter.writeFlightPathToFile(pathList, deliveredOrders, day.date);
+        if (binaryExport) {
+            FlightPathExport.writeFlightPathToFile(pathList, deliveredOrders, day.date);
+        }
+    }
+
+    /**
+     * One day's orders after validation, with the restaurant each valid order is from
+     */
+    public class DayOrders {
+        private final String date;
+        private final List<Order> allOrders = new ArrayList<>();
+        private final List<Order> validOrders = new ArrayList<>();
+        private final List<Restaurant> orderRestaurants = new ArrayList<>();
+
+        private DayOrders(String date) {
+            this.date = date;
+        }
+
+        // each valid order's restaurant comes from its validation and is reused for planning and delivery
+        private void add(Order order, Restaurant restaurant) {
+            allOrders.add(order);
+            if (order.getOrderStatus() == OrderStatus.VALID_BUT_NOT_DELIVERED) {
+                validOrders.add(order);
+                orderRestaurants.add(restaurant);
+            }
+        }
+
+        public String getDate() {
+            return date;
+        }
+
+        public List<Order> getAllOrders() {
+            return allOrders;
+        }
+
+        public List<Order> getValidOrders() {
+            return validOrders;
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package uk.ac.ed.inf;
+
+import uk.ac.ed.inf.ilp.data.NamedRegion;
+import uk.ac.ed.inf.ilp.data.Order;
+import uk.ac.ed.inf.ilp.data.Restaurant;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.function.Consumer;
+
+/**
+ * Everything the REST API serves for one day's run, fetched together by RestReader.fetchDaySnapshot
+ * The reference data is fully read, while the orders are left as the unread response body
+ * so they can still be streamed into validation as they arrive
+ */
+public class DaySnapshot {
+
+    private final boolean alive;
+    private final Restaurant[] restaurants;
+    private final NamedRegion[] noFlyZones;
+    private final NamedRegion centralArea;
+    private final InputStream ordersBody;
+
+    /**
+     * Creates the snapshot
+     * @param alive whether the server reported itself alive
+     * @param restaurants the defined restaurants
+     * @param noFlyZones the no-fly zones
+     * @param centralArea the central area
+     * @param ordersBody the unread body of the orders response, null if no orders were requested
+     */
+    public DaySnapshot(boolean alive, Restaurant[] restaurants, NamedRegion[] noFlyZones, NamedRegion centralArea,
+                       InputStream ordersBody) {
+        this.alive = alive;
+        this.restaurants = restaurants;
+        this.noFlyZones = noFlyZones;
+        this.centralArea = centralArea;
+        this.ordersBody = ordersBody;
+    }
+
+    public boolean isAlive() {
+        return alive;
+    }
+
+    public Restaurant[] getRestaurants() {
+        return restaurants;
+    }
+
+    public NamedRegion[] getNoFlyZones() {
+        return noFlyZones;
+    }
+
+    public NamedRegion getCentralArea() {
+        return centralArea;
+    }
+
+    /**
+     * @return the unread body of the orders response, which can only be read once
+     */
+    public InputStream getOrdersBody() {
+        return ordersBody;
+    }
+
+    /**
+     * Reads the orders from the response body, handing each on as soon as it is parsed
+     * The body can only be read once
+     * @param orderConsumer receives each order in the order the REST API lists them
+     * @return the number of orders read
+     * @throws IOException if the body cannot be read or is not an array of orders
+     */
+    public int readOrders(Consumer<Order> orderConsumer) throws IOException {
+        try (InputStream body = ordersBody) {
+            return RestReader.readOrders(body, orderConsumer);
+        }
+    }
+}
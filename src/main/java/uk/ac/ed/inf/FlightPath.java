@@ -0,0 +1,185 @@
+package uk.ac.ed.inf;
+
+import uk.ac.ed.inf.ilp.data.LngLat;
+
+import java.util.AbstractList;
+import java.util.List;
+import java.util.RandomAccess;
+
+/**
+ * An immutable flightpath stored as lng/lat pairs in a double[]
+ * Reversed and concatenated paths are views over the same arrays, so making them is O(1) and copies nothing.
+ * A FlightPath is a read-only List<LngLat>, so it can be shared by reference between every order to the
+ * same restaurant and passed straight to the file writers. lng(i) and lat(i) read a position without
+ * creating a LngLat.
+ * A path found by the planner carries the compass direction the search took for every move, so direction(i)
+ * gives it without any trigonometry, and a reversed view flips the recorded directions.
+ * Any other path has its directions worked out once from its positions when it is copied in
+ */
+public final class FlightPath extends AbstractList<LngLat> implements RandomAccess {
+
+    // lng, lat pairs for a stored path, null for a concatenation
+    private final double[] coordinates;
+    // direction index of each move of a stored path, null for a concatenation
+    private final byte[] directions;
+    private final FlightPath first;
+    private final FlightPath second;
+    private final boolean reversed;
+    private final int size;
+
+    private FlightPath(double[] coordinates, byte[] directions, FlightPath first, FlightPath second,
+                       boolean reversed, int size) {
+        this.coordinates = coordinates;
+        this.directions = directions;
+        this.first = first;
+        this.second = second;
+        this.reversed = reversed;
+        this.size = size;
+    }
+
+    /**
+     * Wraps a path found by the planner along with the direction of each of its moves
+     * The arrays are kept as they are, so they must not be changed afterwards
+     * @param coordinates the positions of the path as lng, lat pairs, in order
+     * @param directions the compass index of each move, one fewer than the positions
+     * @return the FlightPath
+     */
+    static FlightPath of(double[] coordinates, byte[] directions) {
+        return new FlightPath(coordinates, directions, null, null, false, coordinates.length / 2);
+    }
+
+    /**
+     * Copies a path into a FlightPath, working out the direction of each move from its positions
+     * Paths from the planner are already FlightPaths and do not need copying
+     * @param path the positions of the path, in order
+     * @return the FlightPath
+     */
+    public static FlightPath of(List<LngLat> path) {
+        double[] coordinates = new double[path.size() * 2];
+        for (int i = 0; i < path.size(); i++) {
+            coordinates[2 * i] = path.get(i).lng();
+            coordinates[2 * i + 1] = path.get(i).lat();
+        }
+        return stored(coordinates);
+    }
+
+    // works out the direction of each move, once for every view of the path
+    private static FlightPath stored(double[] coordinates) {
+        int size = coordinates.length / 2;
+        byte[] directions = new byte[Math.max(size - 1, 0)];
+        for (int i = 0; i < directions.length; i++) {
+            directions[i] = (byte) LngLatHandler.compassDirection(coordinates[2 * i + 2] - coordinates[2 * i],
+                    coordinates[2 * i + 3] - coordinates[2 * i + 1]);
+        }
+        return new FlightPath(coordinates, directions, null, null, false, size);
+    }
+
+    /**
+     * @return a view of this path in reverse order
+     */
+    public FlightPath reversed() {
+        return new FlightPath(coordinates, directions, first, second, !reversed, size);
+    }
+
+    /**
+     * @param next the path flown after this one
+     * @return a view of this path followed by next
+     */
+    public FlightPath concat(FlightPath next) {
+        return new FlightPath(null, null, this, next, false, size + next.size);
+    }
+
+    /**
+     * Adds a hover at the end of this path, where the drone stays at its last position for one move
+     * @return a view of this path with its last position repeated
+     */
+    public FlightPath withHover() {
+        int last = size - 1;
+        return concat(stored(new double[] { lng(last), lat(last) }));
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public LngLat get(int index) {
+        return new LngLat(lng(index), lat(index));
+    }
+
+    /**
+     * @param index the position in the path
+     * @return the longitude of that position
+     */
+    public double lng(int index) {
+        return coordinate(index, 0);
+    }
+
+    /**
+     * @param index the position in the path
+     * @return the latitude of that position
+     */
+    public double lat(int index) {
+        return coordinate(index, 1);
+    }
+
+    /**
+     * @param move the index of the move, from position move to position move + 1
+     * @return the compass index of the move, 0 (east) to 15 anticlockwise, or LngLatHandler.HOVER_DIRECTION
+     */
+    public int direction(int move) {
+        if (move < 0 || move >= size - 1) {
+            throw new IndexOutOfBoundsException("Move " + move + " out of bounds for " + (size - 1) + " moves");
+        }
+        FlightPath path = this;
+        int index = move;
+        boolean flipped = false;
+        while (true) {
+            // in a reversed view the move is the stored move the other way round
+            if (path.reversed) {
+                index = path.size - 2 - index;
+                flipped = !flipped;
+            }
+            if (path.directions != null) {
+                int direction = path.directions[index];
+                return flipped ? LngLatHandler.reverseDirection(direction) : direction;
+            }
+            if (index + 1 < path.first.size) {
+                path = path.first;
+            }
+            else if (index >= path.first.size) {
+                index -= path.first.size;
+                path = path.second;
+            }
+            else {
+                // the move joining two views was never stored, in a full path it is always a hover
+                return LngLatHandler.compassDirection(lng(move + 1) - lng(move), lat(move + 1) - lat(move));
+            }
+        }
+    }
+
+    // walks down through the concatenations to the stored path holding the position
+    private double coordinate(int index, int axis) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index " + index + " out of bounds for length " + size);
+        }
+        FlightPath path = this;
+        while (true) {
+            // each view's index is in its own order, so only its own direction matters
+            if (path.reversed) {
+                index = path.size - 1 - index;
+            }
+            if (path.coordinates != null) {
+                return path.coordinates[2 * index + axis];
+            }
+            if (index < path.first.size) {
+                path = path.first;
+            }
+            else {
+                index -= path.first.size;
+                path = path.second;
+            }
+        }
+    }
+}
@@ -0,0 +1,297 @@
+package uk.ac.ed.inf;
+
+import uk.ac.ed.inf.ilp.data.LngLat;
+import uk.ac.ed.inf.ilp.data.Order;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Compact binary export of a day's flightpath moves, an alternative to flightpath-<date>.json for replay tools
+ * The file holds the same moves as the json file, stored in columns rather than one object per move:
+ * a dictionary of order numbers, then for each path its order, move count and start position,
+ * then for every move its compass direction and its change in longitude and latitude.
+ * Positions are fixed point at COORDINATE_SCALE steps per degree, so each move is stored as two int deltas.
+ * Files are written and read through a memory-mapped FileChannel.
+ *
+ * Layout, big-endian:
+ * int MAGIC, int VERSION, int dictionary size, then each order number as an int length and UTF-8 bytes,
+ * int path count, int move count, int[paths] order index (NO_ORDER_NO for an order without a number),
+ * int[paths] moves, long[paths] start longitude,
+ * long[paths] start latitude, byte[moves] direction, int[moves] longitude delta, int[moves] latitude delta
+ */
+public class FlightPathExport {
+
+    /**
+     * System property set to true to write flightpath-<date>.bin alongside the json result files
+     */
+    public static final String EXPORT_PROPERTY = "pizzadronz.export.binary";
+
+    /**
+     * Fixed point steps per degree, positions are kept to a millionth of a millionth of a degree
+     */
+    public static final double COORDINATE_SCALE = 1e12;
+
+    /**
+     * Direction stored for a move where the drone hovers in place
+     */
+    public static final byte HOVER = (byte) LngLatHandler.HOVER_DIRECTION;
+
+    // file header, the version is bumped whenever the format changes
+    private static final int MAGIC = 0x50444650;
+    private static final int VERSION = 2;
+
+    // order index of a path whose order has no order number, which is left out of the dictionary
+    private static final int NO_ORDER_NO = -1;
+
+    private final String[] orderNos;
+    private final int[] moveOrders;
+    private final byte[] directions;
+    private final double[] fromLng;
+    private final double[] fromLat;
+    private final double[] toLng;
+    private final double[] toLat;
+
+    private FlightPathExport(String[] orderNos, int[] moveOrders, byte[] directions,
+                             double[] fromLng, double[] fromLat, double[] toLng, double[] toLat) {
+        this.orderNos = orderNos;
+        this.moveOrders = moveOrders;
+        this.directions = directions;
+        this.fromLng = fromLng;
+        this.fromLat = fromLat;
+        this.toLng = toLng;
+        this.toLat = toLat;
+    }
+
+    /**
+     * Writes the binary export of the day's flightpaths to the resultfiles directory
+     * @param path the flightpaths for the day
+     * @param order the orders the flightpaths belong to, in the same order
+     * @param date the date corresponding to the flightpaths
+     */
+    public static void writeFlightPathToFile(List<List<LngLat>> path, List<Order> order, String date) {
+        Path fileName = OutputSink.resultFile("flightpath-" + date + ".bin");
+
+        try {
+            write(fileName, path, order);
+        } catch (IOException e) {
+            System.err.println("Failed to write to file: " + fileName);
+        }
+    }
+
+    /**
+     * Writes the binary export of the flightpaths
+     * Path i belongs to order i, as in JsonConverter.writeFlightPathToFile
+     * @param file the file to be written
+     * @param paths the flightpaths, made of drone moves
+     * @param orders the orders the flightpaths belong to, in the same order
+     * @throws IOException if the file cannot be written
+     */
+    public static void write(Path file, List<List<LngLat>> paths, List<Order> orders) throws IOException {
+        // order numbers are stored once each, and every path refers to its order by index
+        Map<String, Integer> dictionary = new HashMap<>();
+        List<byte[]> dictionaryBytes = new ArrayList<>();
+        int[] orderIndexes = new int[paths.size()];
+        int moves = 0;
+        long size = 5 * Integer.BYTES;
+        for (int i = 0; i < paths.size(); i++) {
+            // a missing order number is left out, as JsonConverter leaves out the orderNo field
+            String orderNo = orders.get(i).getOrderNo();
+            orderIndexes[i] = NO_ORDER_NO;
+            if (orderNo != null) {
+                Integer index = dictionary.get(orderNo);
+                if (index == null) {
+                    index = dictionaryBytes.size();
+                    dictionary.put(orderNo, index);
+                    byte[] bytes = orderNo.getBytes(StandardCharsets.UTF_8);
+                    dictionaryBytes.add(bytes);
+                    size += Integer.BYTES + bytes.length;
+                }
+                orderIndexes[i] = index;
+            }
+            moves += Math.max(paths.get(i).size() - 1, 0);
+        }
+        size += (long) paths.size() * (2 * Integer.BYTES + 2 * Long.BYTES) + (long) moves * (1 + 2 * Integer.BYTES);
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+            buffer.putInt(MAGIC);
+            buffer.putInt(VERSION);
+            buffer.putInt(dictionaryBytes.size());
+            for (byte[] bytes : dictionaryBytes) {
+                buffer.putInt(bytes.length);
+                buffer.put(bytes);
+            }
+            buffer.putInt(paths.size());
+            buffer.putInt(moves);
+
+            // each column is written in full before the next
+            for (int index : orderIndexes) {
+                buffer.putInt(index);
+            }
+            for (List<LngLat> path : paths) {
+                buffer.putInt(Math.max(path.size() - 1, 0));
+            }
+            for (List<LngLat> path : paths) {
+                buffer.putLong(path.isEmpty() ? 0 : toFixed(path.get(0).lng()));
+            }
+            for (List<LngLat> path : paths) {
+                buffer.putLong(path.isEmpty() ? 0 : toFixed(path.get(0).lat()));
+            }
+
+            int directionStart = buffer.position();
+            int lngStart = directionStart + moves;
+            int latStart = lngStart + moves * Integer.BYTES;
+            int move = 0;
+            for (List<LngLat> path : paths) {
+                // planned paths already know the direction of every move, any other path is stored once here
+                FlightPath flightPath = path instanceof FlightPath planned ? planned : FlightPath.of(path);
+                for (int j = 0; j < flightPath.size() - 1; j++, move++) {
+                    int lngDelta = toDelta(toFixed(flightPath.lng(j + 1)) - toFixed(flightPath.lng(j)));
+                    int latDelta = toDelta(toFixed(flightPath.lat(j + 1)) - toFixed(flightPath.lat(j)));
+                    buffer.put(directionStart + move, (byte) flightPath.direction(j));
+                    buffer.putInt(lngStart + move * Integer.BYTES, lngDelta);
+                    buffer.putInt(latStart + move * Integer.BYTES, latDelta);
+                }
+            }
+            buffer.force();
+        }
+    }
+
+    /**
+     * Reads a binary export written by write
+     * @param file the file to be read
+     * @return the moves in the file
+     * @throws IOException if the file cannot be read or is not a flightpath export
+     */
+    public static FlightPathExport read(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (buffer.getInt() != MAGIC || buffer.getInt() != VERSION) {
+                throw new IOException("Not a flightpath export: " + file);
+            }
+
+            String[] orderNos = new String[buffer.getInt()];
+            for (int i = 0; i < orderNos.length; i++) {
+                byte[] bytes = new byte[buffer.getInt()];
+                buffer.get(bytes);
+                orderNos[i] = new String(bytes, StandardCharsets.UTF_8);
+            }
+
+            int paths = buffer.getInt();
+            int moves = buffer.getInt();
+            int[] orderIndexes = new int[paths];
+            int[] pathMoves = new int[paths];
+            long[] startLng = new long[paths];
+            long[] startLat = new long[paths];
+            buffer.asIntBuffer().get(orderIndexes);
+            buffer.position(buffer.position() + paths * Integer.BYTES);
+            buffer.asIntBuffer().get(pathMoves);
+            buffer.position(buffer.position() + paths * Integer.BYTES);
+            buffer.asLongBuffer().get(startLng);
+            buffer.position(buffer.position() + paths * Long.BYTES);
+            buffer.asLongBuffer().get(startLat);
+            buffer.position(buffer.position() + paths * Long.BYTES);
+
+            byte[] directions = new byte[moves];
+            int[] lngDeltas = new int[moves];
+            int[] latDeltas = new int[moves];
+            buffer.get(directions);
+            buffer.asIntBuffer().get(lngDeltas);
+            buffer.position(buffer.position() + moves * Integer.BYTES);
+            buffer.asIntBuffer().get(latDeltas);
+
+            // the positions are rebuilt by adding up each path's deltas from its start
+            int[] moveOrders = new int[moves];
+            double[] fromLng = new double[moves];
+            double[] fromLat = new double[moves];
+            double[] toLng = new double[moves];
+            double[] toLat = new double[moves];
+            int move = 0;
+            for (int i = 0; i < paths; i++) {
+                long lng = startLng[i];
+                long lat = startLat[i];
+                for (int j = 0; j < pathMoves[i]; j++, move++) {
+                    moveOrders[move] = orderIndexes[i];
+                    fromLng[move] = lng / COORDINATE_SCALE;
+                    fromLat[move] = lat / COORDINATE_SCALE;
+                    lng += lngDeltas[move];
+                    lat += latDeltas[move];
+                    toLng[move] = lng / COORDINATE_SCALE;
+                    toLat[move] = lat / COORDINATE_SCALE;
+                }
+            }
+            return new FlightPathExport(orderNos, moveOrders, directions, fromLng, fromLat, toLng, toLat);
+        } catch (RuntimeException e) {
+            throw new IOException("Corrupt flightpath export: " + file, e);
+        }
+    }
+
+    private static long toFixed(double degrees) {
+        return Math.round(degrees * COORDINATE_SCALE);
+    }
+
+    private static int toDelta(long delta) {
+        if (delta < Integer.MIN_VALUE || delta > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Move too long for a flightpath export: " + delta / COORDINATE_SCALE);
+        }
+        return (int) delta;
+    }
+
+    /**
+     * @return the number of moves in the export
+     */
+    public int getMoveCount() {
+        return directions.length;
+    }
+
+    /**
+     * @param move the index of the move
+     * @return the order number of the order the move belongs to, or null if the order had none
+     */
+    public String getOrderNo(int move) {
+        return moveOrders[move] == NO_ORDER_NO ? null : orderNos[moveOrders[move]];
+    }
+
+    /**
+     * @param move the index of the move
+     * @return the compass index of the move, 0 (east) to 15 anticlockwise, or HOVER
+     */
+    public int getDirection(int move) {
+        return directions[move];
+    }
+
+    /**
+     * @param move the index of the move
+     * @return the angle of the move in degrees as written to the json file, 999 for a hover
+     */
+    public double getAngle(int move) {
+        return LngLatHandler.directionAngle(directions[move]);
+    }
+
+    public double getFromLongitude(int move) {
+        return fromLng[move];
+    }
+
+    public double getFromLatitude(int move) {
+        return fromLat[move];
+    }
+
+    public double getToLongitude(int move) {
+        return toLng[move];
+    }
+
+    public double getToLatitude(int move) {
+        return toLat[move];
+    }
+}
@@ -0,0 +1,136 @@
+package uk.ac.ed.inf;
+
+import uk.ac.ed.inf.ilp.data.LngLat;
+import uk.ac.ed.inf.ilp.data.Restaurant;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.ForkJoinWorkerThread;
+
+/**
+ * Plans the flightpaths from the base to each restaurant with a valid order
+ * Paths are taken from the PathCache where possible. The rest are searched for one restaurant at a time
+ * with PathFinding.findLatticePath, in parallel on a bounded ForkJoinPool or on the calling thread when
+ * the planner runs on one thread. Every restaurant always gets the same search, so the paths are the same
+ * whatever the parallelism or the state of the cache
+ */
+public class FlightPlanner {
+
+    /**
+     * System property setting the number of threads used to plan paths, defaults to the number of processors
+     */
+    public static final String PARALLELISM_PROPERTY = "pizzadronz.planner.parallelism";
+
+    private final LngLat start;
+    private final PreparedNoFlyZones noFlyZones;
+    private final PathCache pathCache;
+    private final int parallelism;
+    private ForkJoinPool pool;
+
+    /**
+     * Creates a planner using the configured parallelism
+     * @param start the LngLat every path starts from
+     * @param noFlyZones the prepared areas the drone cannot enter
+     * @param pathCache the cache of previously planned paths
+     */
+    public FlightPlanner(LngLat start, PreparedNoFlyZones noFlyZones, PathCache pathCache) {
+        this(start, noFlyZones, pathCache,
+                Integer.getInteger(PARALLELISM_PROPERTY, Runtime.getRuntime().availableProcessors()));
+    }
+
+    /**
+     * Creates a planner
+     * @param start the LngLat every path starts from
+     * @param noFlyZones the prepared areas the drone cannot enter
+     * @param pathCache the cache of previously planned paths
+     * @param parallelism the number of threads used to plan paths
+     */
+    public FlightPlanner(LngLat start, PreparedNoFlyZones noFlyZones, PathCache pathCache, int parallelism) {
+        this.start = start;
+        this.noFlyZones = noFlyZones;
+        this.pathCache = pathCache;
+        this.parallelism = Math.max(1, parallelism);
+    }
+
+    /**
+     * Plans the path from the start to each of the restaurants
+     * New paths are added to the cache and the cache is saved
+     * @param restaurants the restaurants to plan paths to, duplicates are planned once
+     * @return a map from restaurant name to the List<LngLat> path to it (null if there is no path), in restaurant order
+     */
+    public Map<String, List<LngLat>> planPaths(List<Restaurant> restaurants) {
+        Map<String, LngLat> locations = new LinkedHashMap<>();
+        for (Restaurant restaurant : restaurants) {
+            locations.putIfAbsent(restaurant.name(), restaurant.location());
+        }
+
+        // paths already in the cache for today's geometry are reused, only the rest are searched for
+        List<LngLat> uncachedGoals = new ArrayList<>();
+        for (LngLat location : locations.values()) {
+            if (pathCache.get(start, location) == null && !uncachedGoals.contains(location)) {
+                uncachedGoals.add(location);
+            }
+        }
+
+        if (!uncachedGoals.isEmpty()) {
+            List<List<LngLat>> found = parallelism == 1 || uncachedGoals.size() == 1
+                    ? searchInTurn(uncachedGoals)
+                    : searchInParallel(uncachedGoals);
+            for (int i = 0; i < uncachedGoals.size(); i++) {
+                pathCache.put(start, uncachedGoals.get(i), found.get(i));
+            }
+            pathCache.save();
+        }
+
+        Map<String, List<LngLat>> paths = new LinkedHashMap<>();
+        for (Map.Entry<String, LngLat> location : locations.entrySet()) {
+            paths.put(location.getKey(), pathCache.get(start, location.getValue()));
+        }
+        return paths;
+    }
+
+    public int getParallelism() {
+        return parallelism;
+    }
+
+    // the same searches as searchInParallel, run one after another on the calling thread
+    private List<List<LngLat>> searchInTurn(List<LngLat> goals) {
+        List<List<LngLat>> paths = new ArrayList<>();
+        for (LngLat goal : goals) {
+            paths.add(PathFinding.findLatticePath(start, goal, noFlyZones));
+        }
+        return paths;
+    }
+
+    // one search per goal, forked onto the pool and joined back in goal order
+    private List<List<LngLat>> searchInParallel(List<LngLat> goals) {
+        List<ForkJoinTask<List<LngLat>>> tasks = new ArrayList<>();
+        ForkJoinPool planningPool = pool();
+        for (LngLat goal : goals) {
+            tasks.add(planningPool.submit(() -> PathFinding.findLatticePath(start, goal, noFlyZones)));
+        }
+
+        List<List<LngLat>> paths = new ArrayList<>();
+        for (ForkJoinTask<List<LngLat>> task : tasks) {
+            paths.add(task.join());
+        }
+        return paths;
+    }
+
+    // the pool is created on first use and kept, so its threads keep their warm search engines
+    // its threads are daemons, so an idle pool never keeps the program running
+    private synchronized ForkJoinPool pool() {
+        if (pool == null) {
+            pool = new ForkJoinPool(parallelism, forkJoinPool -> {
+                ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(forkJoinPool);
+                thread.setDaemon(true);
+                return thread;
+            }, null, false);
+        }
+        return pool;
+    }
+}
@@ -1,29 +1,89 @@
 package uk.ac.ed.inf;
 
-import com.google.gson.JsonArray;
-import com.google.gson.JsonObject;
+import com.fasterxml.jackson.core.JsonGenerator;
 
-import java.io.File;
-import java.io.FileWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
 import java.util.List;
 
 import uk.ac.ed.inf.ilp.data.LngLat;
+import uk.ac.ed.inf.ilp.data.Order;
 
 public class GeoJsonConverter {
 
     /**
-     * Converts all data to a JsonObject to be written to geojson file
+     * System property set to true to write one Feature per order, with the order number in its properties,
+     * rather than one LineString of the whole day
+     */
+    public static final String PER_ORDER_PROPERTY = "pizzadronz.geojson.perOrder";
+
+    /**
+     * System property giving the number of decimal places coordinates are rounded to
+     * RFC 7946 suggests 6, which is about 10cm. Unset or negative keeps full precision
+     */
+    public static final String PRECISION_PROPERTY = "pizzadronz.geojson.precision";
+
+    /**
+     * Precision that keeps every coordinate exactly as calculated
+     */
+    public static final int FULL_PRECISION = -1;
+
+    /**
+     * Writes a geojson file of the day's flightpaths as one LineString
      * file contains all LngLat positions of the drone that day
      * @param flightPaths the list of flightpaths to be written to geojson
      * @param date the date corresponding to the flightpaths
      */
     public static void generateFlightPathGeoJson(List<List<LngLat>> flightPaths, String date) {
+        generateFlightPathGeoJson(flightPaths, null, date, false,
+                Integer.getInteger(PRECISION_PROPERTY, FULL_PRECISION));
+    }
 
+    /**
+     * Writes a geojson file of the day's flightpaths, laid out as set by the system properties
+     * @param flightPaths the list of flightpaths to be written to geojson
+     * @param orders the order each flightpath delivers, in the same order
+     * @param date the date corresponding to the flightpaths
+     */
+    public static void generateFlightPathGeoJson(List<List<LngLat>> flightPaths, List<Order> orders, String date) {
+        generateFlightPathGeoJson(flightPaths, orders, date, Boolean.getBoolean(PER_ORDER_PROPERTY),
+                Integer.getInteger(PRECISION_PROPERTY, FULL_PRECISION));
+    }
+
+    /**
+     * Writes a geojson file of the day's flightpaths to the resultfiles directory
+     * Coordinates are streamed to the file as they are written, so no tree of the output is built
+     * @param flightPaths the list of flightpaths to be written to geojson
+     * @param orders the order each flightpath delivers, in the same order, only needed for one Feature per order
+     * @param date the date corresponding to the flightpaths
+     * @param perOrder true for one Feature per order, false for one LineString of the whole day
+     * @param precision the decimal places coordinates are rounded to, or FULL_PRECISION
+     */
+    public static void generateFlightPathGeoJson(List<List<LngLat>> flightPaths, List<Order> orders, String date,
+                                                 boolean perOrder, int precision) {
         // writes file for corresponding date to the resultfiles directory
-        String fileName = "resultfiles/drone-" + date + ".geojson";
+        Path fileName = OutputSink.resultFile("drone-" + date + ".geojson");
 
-        JsonObject featureCollection = new JsonObject();
+        try {
+            writeGeoJson(fileName, flightPaths, orders, perOrder, precision);
+        } catch (IOException e) {
+            System.err.println("Failed to write to file: " + fileName);
+        }
+    }
 
+    /**
+     * Writes a geojson file of the flightpaths
+     * @param file the file to be written
+     * @param flightPaths the list of flightpaths to be written to geojson
+     * @param orders the order each flightpath delivers, in the same order, only needed for one Feature per order
+     * @param perOrder true for one Feature per order, false for one LineString of the whole day
+     * @param precision the decimal places coordinates are rounded to, or FULL_PRECISION
+     * @throws IOException if the file cannot be written
+     */
+    static void writeGeoJson(Path file, List<List<LngLat>> flightPaths, List<Order> orders, boolean perOrder,
+                             int precision) throws IOException {
         // empty geojson file if no flightpaths
         // exactly how geojson.io is seen when opened with no data
         if (flightPaths.size() == 0) {
@@ -31,58 +91,75 @@ public class GeoJsonConverter {
                     "  \"type\": \"FeatureCollection\",\n" +
                     "  \"features\": []\n" +
                     "}";
-            writeGeoJson(fileName, emptyGeoJson);
+            try (OutputStream out = OutputSink.configured().open(file)) {
+                out.write(emptyGeoJson.getBytes(StandardCharsets.UTF_8));
+            }
             return;
         }
 
-        featureCollection.addProperty("type", "FeatureCollection");
-
-        // JsonArray and JsonObject used to store the flightpaths directly from Java objects
-        JsonArray features = new JsonArray();
-        JsonObject feature = new JsonObject();
-        JsonObject properties = new JsonObject();
-
-        feature.addProperty("type", "Feature");
-        feature.add("properties", properties);
+        double scale = precision < 0 ? 0 : Math.pow(10, precision);
 
-        JsonObject geometry = new JsonObject();
-        geometry.addProperty("type", "LineString");
-        JsonArray coordinates = new JsonArray();
+        try (JsonGenerator generator = JsonConverter.createGenerator(file)) {
+            generator.writeStartObject();
+            generator.writeStringField("type", "FeatureCollection");
+            generator.writeArrayFieldStart("features");
 
-        // adds all coordinates to the JsonArray
-        for (List<LngLat> flightPath : flightPaths) {
-            for (LngLat lngLat : flightPath) {
-                JsonArray coord = new JsonArray();
-                coord.add(lngLat.lng());
-                coord.add(lngLat.lat());
-                coordinates.add(coord);
+            if (perOrder) {
+                for (int i = 0; i < flightPaths.size(); i++) {
+                    writeFeatureStart(generator, orders.get(i).getOrderNo());
+                    writeCoordinates(generator, flightPaths.get(i), scale);
+                    writeFeatureEnd(generator);
+                }
+            }
+            else {
+                // every flightpath joined into one line
+                writeFeatureStart(generator, null);
+                for (List<LngLat> flightPath : flightPaths) {
+                    writeCoordinates(generator, flightPath, scale);
+                }
+                writeFeatureEnd(generator);
             }
-        }
-        geometry.add("coordinates", coordinates);
-        feature.add("geometry", geometry);
-
-        features.add(feature);
 
-        //features.add(feature);
+            generator.writeEndArray();
+            generator.writeEndObject();
+        }
+    }
 
-        featureCollection.add("features", features);
+    // opens a Feature up to the start of its LineString coordinates
+    private static void writeFeatureStart(JsonGenerator generator, String orderNo) throws IOException {
+        generator.writeStartObject();
+        generator.writeStringField("type", "Feature");
+        generator.writeObjectFieldStart("properties");
+        if (orderNo != null) {
+            generator.writeStringField("orderNo", orderNo);
+        }
+        generator.writeEndObject();
+        generator.writeObjectFieldStart("geometry");
+        generator.writeStringField("type", "LineString");
+        generator.writeArrayFieldStart("coordinates");
+    }
 
-        // JsonObject converted to String and written to file
-        writeGeoJson(fileName, featureCollection.toString());
+    private static void writeFeatureEnd(JsonGenerator generator) throws IOException {
+        generator.writeEndArray();
+        generator.writeEndObject();
+        generator.writeEndObject();
     }
 
-    /**
-     * Writes a GeoJson file of the drone's flightpaths to the resultfiles directory
-     * @param fileName the name of the file to be written
-     * @param geoJson the String of all the data to be written
-     */
-    private static void writeGeoJson(String fileName, String geoJson) {
-        new File("resultfiles").mkdirs();
-        try (FileWriter fileWriter = new FileWriter(fileName)) {
-            fileWriter.write(geoJson);
-        } catch (Exception e) {
-            System.err.println("Failed to write to file: " + fileName);
+    private static void writeCoordinates(JsonGenerator generator, List<LngLat> flightPath, double scale)
+            throws IOException {
+        for (LngLat lngLat : flightPath) {
+            generator.writeStartArray();
+            writeCoordinate(generator, lngLat.lng(), scale);
+            writeCoordinate(generator, lngLat.lat(), scale);
+            generator.writeEndArray();
         }
     }
 
+    // written as Double.toString, as Gson did, so full precision files are unchanged
+    private static void writeCoordinate(JsonGenerator generator, double value, double scale) throws IOException {
+        if (scale > 0) {
+            value = Math.round(value * scale) / scale;
+        }
+        generator.writeNumber(Double.toString(value));
+    }
 }
@@ -1,39 +1,53 @@
 package uk.ac.ed.inf;
 
-import org.json.JSONArray;
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
 import org.json.JSONObject;
 
-import java.io.File;
-import java.io.FileWriter;
 import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Path;
 import java.util.List;
-import java.text.DecimalFormat;
 
 import uk.ac.ed.inf.ilp.data.LngLat;
 import uk.ac.ed.inf.ilp.data.Order;
 
 public class JsonConverter {
 
+    // the angle of each move direction as written to the file, 0 to 337.5 for the compass directions then 999 for a hover
+    private static final String[] ANGLES = new String[LngLatHandler.HOVER_DIRECTION + 1];
+
+    static {
+        for (int i = 0; i < ANGLES.length; i++) {
+            ANGLES[i] = JSONObject.numberToString(LngLatHandler.directionAngle(i));
+        }
+    }
+
     /**
      * Writes a Json file of the day's deliveries
      * Includes order number, order status, order validation code and cost in pence
+     * Each delivery is streamed to the file as it is written, so the output is never held in memory
      * @param orders the relevant orders for the day
      * @param date the date corresponding to the orders
      */
     public static void writeDeliveriesToFile(List<Order> orders, String date) {
-        JSONArray deliveryArray = new JSONArray();
+        Path fileName = OutputSink.resultFile("deliveries-" + date + ".json");
 
-        for (Order order : orders) {
-            JSONObject delivery = new JSONObject();
-            delivery.put("orderNo", order.getOrderNo());
-            delivery.put("orderStatus", order.getOrderStatus());
-            delivery.put("orderValidationCode", order.getOrderValidationCode());
-            delivery.put("costInPence", order.getPriceTotalInPence());
-            deliveryArray.put(delivery);
+        try (JsonGenerator generator = createGenerator(fileName)) {
+            generator.writeStartArray();
+            for (Order order : orders) {
+                // fields in the same order org.json wrote them, so the files are unchanged
+                generator.writeStartObject();
+                writeString(generator, "orderValidationCode", order.getOrderValidationCode());
+                writeString(generator, "orderNo", order.getOrderNo());
+                writeString(generator, "orderStatus", order.getOrderStatus());
+                generator.writeNumberField("costInPence", order.getPriceTotalInPence());
+                generator.writeEndObject();
+            }
+            generator.writeEndArray();
+        } catch (IOException e) {
+            System.err.println("Failed to write to file: " + fileName);
         }
-
-        String fileName = "resultfiles/deliveries-" + date + ".json";
-        writeJson(fileName, deliveryArray);
     }
 
 //    /**
@@ -63,53 +77,72 @@ public class JsonConverter {
 //        String fileName = "resultfiles/flightpath-" + date + ".json";
 //        writeJson(fileName, flightPathArray);
 //    }
+    /**
+     * Writes a Json file of the day's flightpaths, one record per move
+     * Includes order number, to and from coordinates, and angle between coordinates
+     * Each move is streamed to the file as it is written, so the output is never held in memory
+     * Every move is a drone move, so its angle is looked up from its compass direction rather than calculated
+     * @param path the flightpaths for the day
+     * @param order the orders the flightpaths belong to, in the same order
+     * @param date the date corresponding to the flightpaths
+     */
     public static void writeFlightPathToFile(List<List<LngLat>> path, List<Order> order, String date) {
-        JSONArray flightPathArray = new JSONArray();
+        Path fileName = OutputSink.resultFile("flightpath-" + date + ".json");
+
+        try (JsonGenerator generator = createGenerator(fileName)) {
+            generator.writeStartArray();
+            for (int i = 0; i < path.size(); i++) {
+                // planned paths already know the direction of every move, any other path is stored once here
+                FlightPath flightPath = path.get(i) instanceof FlightPath planned ? planned : FlightPath.of(path.get(i));
+                String orderNo = order.get(i).getOrderNo();
+                String quotedOrderNo = orderNo == null ? null : JSONObject.quote(orderNo);
 
-        for (int i = 0; i < path.size(); i++) {
-            for (int j = 0; j < path.get(i).size() - 1; j++) {
-                JSONObject flightPath = new JSONObject();
-                flightPath.put("orderNo", order.get(i).getOrderNo());
-                flightPath.put("fromLongitude", path.get(i).get(j).lng());
-                flightPath.put("fromLatitude", path.get(i).get(j).lat());
-                flightPath.put("angle", angleCalculator(path.get(i).get(j), path.get(i).get(j+1)));
-                flightPath.put("toLongitude", path.get(i).get(j+1).lng());
-                flightPath.put("toLatitude", path.get(i).get(j+1).lat());
-                flightPathArray.put(flightPath);
+                for (int j = 0; j < flightPath.size() - 1; j++) {
+                    // fields in the same order org.json wrote them, so the files are unchanged
+                    generator.writeStartObject();
+                    if (quotedOrderNo != null) {
+                        generator.writeFieldName("orderNo");
+                        generator.writeRawValue(quotedOrderNo);
+                    }
+                    writeNumber(generator, "fromLongitude", flightPath.lng(j));
+                    writeNumber(generator, "fromLatitude", flightPath.lat(j));
+                    generator.writeFieldName("angle");
+                    generator.writeNumber(ANGLES[flightPath.direction(j)]);
+                    writeNumber(generator, "toLatitude", flightPath.lat(j+1));
+                    writeNumber(generator, "toLongitude", flightPath.lng(j+1));
+                    generator.writeEndObject();
+                }
             }
+            generator.writeEndArray();
+        } catch (IOException e) {
+            System.err.println("Failed to write to file: " + fileName);
         }
-
-        String fileName = "resultfiles/flightpath-" + date + ".json";
-        writeJson(fileName, flightPathArray);
     }
 
-    // used to round angles to correct decimal places, removing unnecessary precision
-    private static final DecimalFormat df = new DecimalFormat("0.00");
-
     /**
-     * Writes a Json file of the relevant JsonArray to the resultfiles directory
-     * @param fileName the name of the file to be written
-     * @param jsonArray the String of all the data to be written
+     * Opens a generator writing compact json to a file through the configured OutputSink
+     * Also used by GeoJsonConverter
+     * @param file the file to be written, before any extension the sink adds
+     * @return the JsonGenerator, which closes the file when it is closed
+     * @throws IOException if the file cannot be opened
      */
-    private static void writeJson(String fileName, JSONArray jsonArray) {
-        new File("resultfiles").mkdirs();
-        try (FileWriter fileWriter = new FileWriter(fileName)) {
-            fileWriter.write(jsonArray.toString());
-        } catch (IOException e) {
-            System.err.println("Failed to write to file: " + fileName);
-        }
+    static JsonGenerator createGenerator(Path file) throws IOException {
+        OutputStream out = OutputSink.configured().open(file);
+        return JsonMapping.mapper().getFactory().createGenerator(out, JsonEncoding.UTF8);
     }
 
-    private static double angleCalculator(LngLat from, LngLat to) {
-        if (from == to || from.equals(to)) {
-            return 999.0;
-        }
-        double angle = Math.toDegrees(Math.atan2(to.lat() - from.lat(), to.lng() - from.lng()));
-        if (angle < 0) {
-            angle += 360;
+    // org.json leaves out null values, and its quoting is kept so strings are escaped exactly as before
+    private static void writeString(JsonGenerator generator, String name, Object value) throws IOException {
+        if (value == null) {
+            return;
         }
-        // remove unnecessary precision
-        angle = Double.parseDouble(df.format(angle));
-        return angle;
+        generator.writeFieldName(name);
+        generator.writeRawValue(JSONObject.quote(value.toString()));
+    }
+
+    // org.json writes whole doubles without the trailing .0
+    private static void writeNumber(JsonGenerator generator, String name, double value) throws IOException {
+        generator.writeFieldName(name);
+        generator.writeNumber(JSONObject.numberToString(value));
     }
 }
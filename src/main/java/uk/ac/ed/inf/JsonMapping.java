@@ -0,0 +1,74 @@
+package uk.ac.ed.inf;
+
+import uk.ac.ed.inf.ilp.data.NamedRegion;
+import uk.ac.ed.inf.ilp.data.Order;
+import uk.ac.ed.inf.ilp.data.Restaurant;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.fasterxml.jackson.module.blackbird.BlackbirdModule;
+
+/**
+ * The one ObjectMapper used to read the REST API's json, with a reader prepared for each type it serves
+ * The mapper and readers are thread-safe and built once per process, so deserializers are only
+ * introspected once. The Blackbird module replaces reflective getters, setters and constructors
+ * with generated lambdas
+ */
+public class JsonMapping {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper()
+            .registerModule(new JavaTimeModule())
+            .registerModule(new BlackbirdModule());
+
+    private static final ObjectReader ORDER_READER = MAPPER.readerFor(Order.class);
+    private static final ObjectReader ORDERS_READER = MAPPER.readerFor(Order[].class);
+    private static final ObjectReader RESTAURANTS_READER = MAPPER.readerFor(Restaurant[].class);
+    private static final ObjectReader NAMED_REGION_READER = MAPPER.readerFor(NamedRegion.class);
+    private static final ObjectReader NAMED_REGIONS_READER = MAPPER.readerFor(NamedRegion[].class);
+
+    private JsonMapping() {
+    }
+
+    /**
+     * @return the shared mapper, for types without a prepared reader
+     */
+    public static ObjectMapper mapper() {
+        return MAPPER;
+    }
+
+    /**
+     * @return the reader for a single Order, also used to stream the elements of an array of orders
+     */
+    public static ObjectReader orderReader() {
+        return ORDER_READER;
+    }
+
+    /**
+     * @return the reader for an Order[]
+     */
+    public static ObjectReader ordersReader() {
+        return ORDERS_READER;
+    }
+
+    /**
+     * @return the reader for a Restaurant[]
+     */
+    public static ObjectReader restaurantsReader() {
+        return RESTAURANTS_READER;
+    }
+
+    /**
+     * @return the reader for a single NamedRegion, such as the central area
+     */
+    public static ObjectReader namedRegionReader() {
+        return NAMED_REGION_READER;
+    }
+
+    /**
+     * @return the reader for a NamedRegion[], such as the no-fly zones
+     */
+    public static ObjectReader namedRegionsReader() {
+        return NAMED_REGIONS_READER;
+    }
+}
@@ -10,6 +10,74 @@ import uk.ac.ed.inf.ilp.interfaces.LngLatHandling;
  */
 public class LngLatHandler implements LngLatHandling {
 
+    /**
+     * the number of compass directions the drone can fly in, direction i is at an angle of i * COMPASS_ANGLE degrees
+     */
+    public static final int COMPASS_DIRECTIONS = 16;
+
+    /**
+     * the angle in degrees between neighbouring compass directions
+     */
+    public static final double COMPASS_ANGLE = 22.5;
+
+    /**
+     * the direction index of a move where the drone hovers in place, after the compass directions
+     */
+    public static final int HOVER_DIRECTION = COMPASS_DIRECTIONS;
+
+    /**
+     * the angle written for a hover, as used by nextPosition
+     */
+    public static final double HOVER_ANGLE = 999;
+
+    // angle of each direction index, so a recorded direction gives its angle without any trigonometry
+    private static final double[] DIRECTION_ANGLES = new double[COMPASS_DIRECTIONS + 1];
+
+    // change in longitude and latitude for one move in each compass direction
+    // computed exactly as nextPosition does, so both give the same positions
+    private static final double[] COMPASS_LNG = new double[COMPASS_DIRECTIONS];
+    private static final double[] COMPASS_LAT = new double[COMPASS_DIRECTIONS];
+
+    static {
+        for (int i = 0; i < COMPASS_DIRECTIONS; i++) {
+            double angleRadians = Math.toRadians(i * COMPASS_ANGLE);
+            COMPASS_LNG[i] = SystemConstants.DRONE_MOVE_DISTANCE * Math.cos(angleRadians);
+            COMPASS_LAT[i] = SystemConstants.DRONE_MOVE_DISTANCE * Math.sin(angleRadians);
+            DIRECTION_ANGLES[i] = i * COMPASS_ANGLE;
+        }
+        DIRECTION_ANGLES[HOVER_DIRECTION] = HOVER_ANGLE;
+    }
+
+    /**
+     * find the direction index of a move, the nearest of the 16 compass directions or HOVER_DIRECTION
+     * @param lngDelta the change in longitude over the move
+     * @param latDelta the change in latitude over the move
+     * @return the compass index, 0 (east) to 15 anticlockwise, or HOVER_DIRECTION if the drone does not move
+     */
+    public static int compassDirection(double lngDelta, double latDelta) {
+        if (lngDelta == 0 && latDelta == 0) {
+            return HOVER_DIRECTION;
+        }
+        double angle = Math.toDegrees(Math.atan2(latDelta, lngDelta));
+        return (int) Math.round(angle / COMPASS_ANGLE) & (COMPASS_DIRECTIONS - 1);
+    }
+
+    /**
+     * @param direction a direction index from compassDirection
+     * @return the direction index of the same move flown the other way
+     */
+    public static int reverseDirection(int direction) {
+        return direction == HOVER_DIRECTION ? HOVER_DIRECTION : (direction + COMPASS_DIRECTIONS / 2) & (COMPASS_DIRECTIONS - 1);
+    }
+
+    /**
+     * @param direction a direction index from compassDirection
+     * @return the angle of the direction in degrees, HOVER_ANGLE for a hover
+     */
+    public static double directionAngle(int direction) {
+        return DIRECTION_ANGLES[direction];
+    }
+
     /**
      * get the distance between two positions
      * @param startPosition is where the start is
@@ -84,6 +152,18 @@ public class LngLatHandler implements LngLatHandling {
 
     }
 
+    /**
+     * check if the @position is in any of the regions held by a @regionIndex (includes the border)
+     * the index answers most positions from its grid, so this is the faster check when the same
+     * regions (e.g. the central area or the no-fly zones) are queried many times
+     * @param position to check
+     * @param regionIndex the indexed regions
+     * @return if the position is inside any of the regions (including the border)
+     */
+    public boolean isInRegion(LngLat position, RegionIndex regionIndex) {
+        return regionIndex.contains(position);
+    }
+
     /**
      * find the next position if an @angle is applied to a @startPosition
      * @param startPosition is where the start is
@@ -101,4 +181,29 @@ public class LngLatHandler implements LngLatHandling {
         double y = startPosition.lat() + (SystemConstants.DRONE_MOVE_DISTANCE * Math.sin(angleRadians));
         return new LngLat(x,y);
     }
+
+    /**
+     * find the next position if a move in one of the 16 compass directions is applied to a @startPosition
+     * gives the same position as nextPosition(startPosition, compassIndex * 22.5) without any trigonometry
+     * @param startPosition is where the start is
+     * @param compassIndex is the direction to move in, 0 (east) to 15 anticlockwise
+     * @return the new position after the move
+     */
+    public LngLat nextCompassPosition(LngLat startPosition, int compassIndex) {
+        return new LngLat(startPosition.lng() + COMPASS_LNG[compassIndex], startPosition.lat() + COMPASS_LAT[compassIndex]);
+    }
+
+    /**
+     * fills @neighbours with the positions one move away in each of the 16 compass directions
+     * the longitude and latitude of direction i are written to neighbours[2 * i] and neighbours[2 * i + 1]
+     * @param lng the longitude of the start position
+     * @param lat the latitude of the start position
+     * @param neighbours the array to fill, at least 2 * COMPASS_DIRECTIONS long
+     */
+    public static void fillNeighbours(double lng, double lat, double[] neighbours) {
+        for (int i = 0; i < COMPASS_DIRECTIONS; i++) {
+            neighbours[2 * i] = lng + COMPASS_LNG[i];
+            neighbours[2 * i + 1] = lat + COMPASS_LAT[i];
+        }
+    }
 }
@@ -0,0 +1,134 @@
+package uk.ac.ed.inf;
+
+import uk.ac.ed.inf.ilp.data.Pizza;
+import uk.ac.ed.inf.ilp.data.Restaurant;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Index of every pizza on the restaurants' menus, built once from the Restaurant[] for a day
+ * Maps each pizza name to the restaurants serving it and the price they charge, so an order's
+ * pizzas and restaurant are resolved with hash lookups instead of scanning every menu.
+ * A pizza name on more than one menu keeps all of its entries in restaurant order,
+ * and lookups then give the same answer as scanning the menus would
+ */
+public class MenuCatalogue {
+
+    private final Restaurant[] restaurants;
+    private final Map<String, MenuEntry[]> entries = new HashMap<>();
+
+    /**
+     * Builds the catalogue
+     * @param restaurants the defined restaurants with their menus
+     */
+    public MenuCatalogue(Restaurant[] restaurants) {
+        this.restaurants = restaurants;
+
+        Map<String, List<MenuEntry>> byName = new HashMap<>();
+        for (int i = 0; i < restaurants.length; i++) {
+            for (Pizza pizza : restaurants[i].menu()) {
+                byName.computeIfAbsent(pizza.name(), name -> new ArrayList<>()).add(new MenuEntry(i, pizza));
+            }
+        }
+        for (Map.Entry<String, List<MenuEntry>> pizzaEntries : byName.entrySet()) {
+            entries.put(pizzaEntries.getKey(), pizzaEntries.getValue().toArray(new MenuEntry[0]));
+        }
+    }
+
+    /**
+     * Checks if a pizza with the same name is on any menu
+     * @param pizza the pizza to look up
+     * @return true if the pizza is defined, false otherwise
+     */
+    public boolean isDefined(Pizza pizza) {
+        return entries.containsKey(pizza.name());
+    }
+
+    /**
+     * Gets the restaurant serving a pizza, the first in restaurant order if several do
+     * @param pizzaName the name of the pizza
+     * @return the Restaurant serving the pizza, or null if it is on no menu
+     */
+    public Restaurant getRestaurant(String pizzaName) {
+        MenuEntry[] pizzaEntries = entries.get(pizzaName);
+        return pizzaEntries == null ? null : restaurants[pizzaEntries[0].restaurant];
+    }
+
+    /**
+     * Gets the menu price of a pizza, from the first restaurant serving it
+     * @param pizzaName the name of the pizza
+     * @return the price in pence, or -1 if the pizza is on no menu
+     */
+    public int getPriceInPence(String pizzaName) {
+        MenuEntry[] pizzaEntries = entries.get(pizzaName);
+        return pizzaEntries == null ? -1 : pizzaEntries[0].pizza.priceInPence();
+    }
+
+    /**
+     * Finds the one restaurant whose menu has every pizza in an order, matching on name and price
+     * @param pizzas the pizzas in the order
+     * @return the first Restaurant serving all the pizzas, or null if no single restaurant does
+     */
+    public Restaurant findRestaurant(Pizza[] pizzas) {
+        if (pizzas.length == 0) {
+            return restaurants.length == 0 ? null : restaurants[0];
+        }
+        MenuEntry[] candidates = entries.get(pizzas[0].name());
+        if (candidates == null) {
+            return null;
+        }
+
+        // only restaurants serving the first pizza can serve the whole order, checked in restaurant order
+        for (MenuEntry candidate : candidates) {
+            if (candidate.pizza.equals(pizzas[0]) && servesAll(candidate.restaurant, pizzas)) {
+                return restaurants[candidate.restaurant];
+            }
+        }
+        return null;
+    }
+
+    private boolean servesAll(int restaurant, Pizza[] pizzas) {
+        for (int i = 1; i < pizzas.length; i++) {
+            if (!serves(restaurant, pizzas[i])) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private boolean serves(int restaurant, Pizza pizza) {
+        MenuEntry[] pizzaEntries = entries.get(pizza.name());
+        if (pizzaEntries == null) {
+            return false;
+        }
+        for (MenuEntry entry : pizzaEntries) {
+            if (entry.restaurant == restaurant && entry.pizza.equals(pizza)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @return the restaurants the catalogue was built from
+     */
+    public Restaurant[] getRestaurants() {
+        return restaurants;
+    }
+
+    /**
+     * A pizza on one restaurant's menu
+     */
+    private static class MenuEntry {
+        private final int restaurant;
+        private final Pizza pizza;
+
+        MenuEntry(int restaurant, Pizza pizza) {
+            this.restaurant = restaurant;
+            this.pizza = pizza;
+        }
+    }
+}
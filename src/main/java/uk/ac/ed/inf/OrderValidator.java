@@ -8,16 +8,49 @@ import uk.ac.ed.inf.ilp.data.Pizza;
 import uk.ac.ed.inf.ilp.data.Restaurant;
 import uk.ac.ed.inf.ilp.interfaces.OrderValidation;
 
+import java.time.Clock;
 import java.time.DayOfWeek;
 import java.time.LocalDate;
-import java.time.YearMonth;
-import java.time.format.DateTimeFormatter;
-import java.util.Arrays;
+import java.util.stream.IntStream;
 
 /**
  * interface to validate an order
  */
 public class OrderValidator implements OrderValidation {
+
+    private static final int CARD_NUMBER_LENGTH = 16;
+    private static final int CVV_LENGTH = 3;
+
+    // the month card expiry dates are checked against, fixed for the whole run
+    private final int referenceYear;
+    private final int referenceMonth;
+
+    private MenuCatalogue menuCatalogue;
+
+    /**
+     * creates a validator checking card expiry dates against the current month
+     */
+    public OrderValidator() {
+        this(Clock.systemDefaultZone());
+    }
+
+    /**
+     * creates a validator checking card expiry dates against the month given by a clock when it is created
+     * @param clock the clock giving the reference date for the run
+     */
+    public OrderValidator(Clock clock) {
+        this(LocalDate.now(clock));
+    }
+
+    /**
+     * creates a validator checking card expiry dates against a fixed reference date
+     * @param referenceDate the date cards must not have expired by
+     */
+    public OrderValidator(LocalDate referenceDate) {
+        this.referenceYear = referenceDate.getYear();
+        this.referenceMonth = referenceDate.getMonthValue();
+    }
+
     /**
      * validate an order and deliver a validated version where the
      * OrderStatus and OrderValidationCode are set accordingly.
@@ -38,6 +71,31 @@ public class OrderValidator implements OrderValidation {
      */
 
     public Order validateOrder(Order orderToValidate, Restaurant[] definedRestaurants) {
+        return validateOrder(orderToValidate, catalogueFor(definedRestaurants));
+    }
+
+    /**
+     * validate an order against a prebuilt MenuCatalogue, with the same checks as validateOrder(Order, Restaurant[])
+     * the order's restaurant is looked up once and reused for the remaining checks
+     *
+     * @param orderToValidate is the order which needs validation
+     * @param menuCatalogue   is the catalogue of the defined restaurants' menus
+     * @return the validated order
+     */
+    public Order validateOrder(Order orderToValidate, MenuCatalogue menuCatalogue) {
+        validateOrderRestaurant(orderToValidate, menuCatalogue);
+        return orderToValidate;
+    }
+
+    /**
+     * validate an order against a prebuilt MenuCatalogue, as validateOrder does, and give back the restaurant
+     * found while checking it, so callers that need the restaurant do not look it up again
+     *
+     * @param orderToValidate is the order which needs validation, it is updated in place
+     * @param menuCatalogue   is the catalogue of the defined restaurants' menus
+     * @return the restaurant the order is from if it passed every check, otherwise null
+     */
+    public Restaurant validateOrderRestaurant(Order orderToValidate, MenuCatalogue menuCatalogue) {
         Restaurant restaurantToCheck;
         // check credit card number:
         // check if number is non-null
@@ -46,7 +104,7 @@ public class OrderValidator implements OrderValidation {
         if (!checkCardNumber(orderToValidate)) {
             orderToValidate.setOrderValidationCode(OrderValidationCode.CARD_NUMBER_INVALID);
             orderToValidate.setOrderStatus(OrderStatus.INVALID);
-            return orderToValidate;
+            return null;
         }
 
         // check CVV:
@@ -56,7 +114,7 @@ public class OrderValidator implements OrderValidation {
         if (!checkCVV(orderToValidate)) {
             orderToValidate.setOrderValidationCode(OrderValidationCode.CVV_INVALID);
             orderToValidate.setOrderStatus(OrderStatus.INVALID);
-            return orderToValidate;
+            return null;
         }
 
         // check expiry date:
@@ -66,7 +124,7 @@ public class OrderValidator implements OrderValidation {
         if (!checkExpiryDate(orderToValidate)) {
             orderToValidate.setOrderValidationCode(OrderValidationCode.EXPIRY_DATE_INVALID);
             orderToValidate.setOrderStatus(OrderStatus.INVALID);
-            return orderToValidate;
+            return null;
         }
 
         int orderCost = 0;
@@ -80,15 +138,15 @@ public class OrderValidator implements OrderValidation {
                 orderToValidate.getPriceTotalInPence() < 0) {
             orderToValidate.setOrderValidationCode(OrderValidationCode.TOTAL_INCORRECT);
             orderToValidate.setOrderStatus(OrderStatus.INVALID);
-            return orderToValidate;
+            return null;
         }
 
         // check if pizza is on any menu
         for (Pizza pizza : orderToValidate.getPizzasInOrder()) {
-            if (!isPizzaInMenus(pizza, definedRestaurants)) {
+            if (!menuCatalogue.isDefined(pizza)) {
                 orderToValidate.setOrderValidationCode(OrderValidationCode.PIZZA_NOT_DEFINED);
                 orderToValidate.setOrderStatus(OrderStatus.INVALID);
-                return orderToValidate;
+                return null;
             }
         }
 
@@ -96,23 +154,23 @@ public class OrderValidator implements OrderValidation {
         if (orderToValidate.getPizzasInOrder().length > SystemConstants.MAX_PIZZAS_PER_ORDER) {
             orderToValidate.setOrderValidationCode(OrderValidationCode.MAX_PIZZA_COUNT_EXCEEDED);
             orderToValidate.setOrderStatus(OrderStatus.INVALID);
-            return orderToValidate;
+            return null;
         }
 
         // check if order contains pizzas from multiple restaurants
-        if (oneRestaurant(orderToValidate.getPizzasInOrder(), definedRestaurants) == null) {
+        restaurantToCheck = menuCatalogue.findRestaurant(orderToValidate.getPizzasInOrder());
+        if (restaurantToCheck == null) {
             orderToValidate.setOrderValidationCode(OrderValidationCode.PIZZA_FROM_MULTIPLE_RESTAURANTS);
             orderToValidate.setOrderStatus(OrderStatus.INVALID);
-            return orderToValidate;
+            return null;
         }
 
         // check if order is valid on the given date for the involved restaurants (opening days)
         DayOfWeek orderDay = orderToValidate.getOrderDate().getDayOfWeek();
-        restaurantToCheck = oneRestaurant(orderToValidate.getPizzasInOrder(), definedRestaurants);
         if (!isRestaurantOpen(restaurantToCheck, orderDay)) {
             orderToValidate.setOrderValidationCode(OrderValidationCode.RESTAURANT_CLOSED);
             orderToValidate.setOrderStatus(OrderStatus.INVALID);
-            return orderToValidate;
+            return null;
         }
 
         // if code makes it to here, there are no errors
@@ -121,91 +179,120 @@ public class OrderValidator implements OrderValidation {
             orderToValidate.setOrderStatus(OrderStatus.VALID_BUT_NOT_DELIVERED);
         }
 
-        return orderToValidate;
+        return restaurantToCheck;
+    }
+
+    /**
+     * validate a whole day of orders, split across the available processors
+     * every order is validated exactly as validateOrder would, against one shared MenuCatalogue
+     *
+     * @param orders      are the orders which need validation, each is updated in place
+     * @param restaurants is the vector of defined restaurants with their according menu structure
+     * @return a ValidationReport with each order's OrderValidationCode and the count of each code
+     */
+    public ValidationReport validateAll(Order[] orders, Restaurant[] restaurants) {
+        return validateAll(orders, catalogueFor(restaurants));
+    }
+
+    /**
+     * validate a whole day of orders against a prebuilt MenuCatalogue, split across the available processors
+     *
+     * @param orders        are the orders which need validation, each is updated in place
+     * @param menuCatalogue is the catalogue of the defined restaurants' menus
+     * @return a ValidationReport with each order's OrderValidationCode and restaurant, and the count of each code
+     */
+    public ValidationReport validateAll(Order[] orders, MenuCatalogue menuCatalogue) {
+        OrderValidationCode[] codes = new OrderValidationCode[orders.length];
+        Restaurant[] restaurants = new Restaurant[orders.length];
+        // each order is independent, so the range is split across the common fork-join pool
+        IntStream.range(0, orders.length).parallel().forEach(i -> {
+            restaurants[i] = validateOrderRestaurant(orders[i], menuCatalogue);
+            codes[i] = orders[i].getOrderValidationCode();
+        });
+        return new ValidationReport(orders, codes, restaurants);
     }
 
     public boolean checkCardNumber(Order order) {
-        if (order.getCreditCardInformation().getCreditCardNumber() == null) {
-            return false;
-        }
-        if (!order.getCreditCardInformation().getCreditCardNumber().matches("[0-9]+")) {
-            return false;
-        }
-        if (order.getCreditCardInformation().getCreditCardNumber().length() != 16) {
-            return false;
-        }
-        return true;
+        // 16 digits, scanned in place rather than matched against a regex
+        return isDigits(order.getCreditCardInformation().getCreditCardNumber(), CARD_NUMBER_LENGTH);
     }
 
     public boolean checkCVV(Order order) {
-        if (order.getCreditCardInformation().getCvv() == null) {
-            return false;
-        }
-        if (!order.getCreditCardInformation().getCvv().matches("[0-9]+")) {
-            return false;
-        }
-        if (order.getCreditCardInformation().getCvv().length() != 3) {
-            return false;
-        }
-        return true;
+        // 3 digits
+        return isDigits(order.getCreditCardInformation().getCvv(), CVV_LENGTH);
     }
 
     public boolean checkExpiryDate(Order order) {
-        if (order.getCreditCardInformation().getCreditCardExpiry() == null) {
+        // MM/YY, a month 01-12 and a two digit year in the 2000s, valid until the end of that month
+        String expiry = order.getCreditCardInformation().getCreditCardExpiry();
+        if (expiry == null || expiry.length() != 5 || expiry.charAt(2) != '/'
+                || !isDigit(expiry.charAt(0)) || !isDigit(expiry.charAt(1))
+                || !isDigit(expiry.charAt(3)) || !isDigit(expiry.charAt(4))) {
             return false;
         }
-        if (!order.getCreditCardInformation().getCreditCardExpiry().matches("^(0[1-9]|1[0-2])\\/?([0-9]{2})")) {
+        int month = (expiry.charAt(0) - '0') * 10 + (expiry.charAt(1) - '0');
+        if (month < 1 || month > 12) {
             return false;
         }
-        DateTimeFormatter dateFormatter = DateTimeFormatter.ofPattern("MM/yy");
-        YearMonth cardExpiry = YearMonth.parse(order.getCreditCardInformation().getCreditCardExpiry(), dateFormatter);
-        LocalDate now = LocalDate.now();
-        if (now.isAfter(cardExpiry.atEndOfMonth())) {
+        int year = 2000 + (expiry.charAt(3) - '0') * 10 + (expiry.charAt(4) - '0');
+
+        return year > referenceYear || (year == referenceYear && month >= referenceMonth);
+    }
+
+    private static boolean isDigits(String value, int length) {
+        if (value == null || value.length() != length) {
             return false;
         }
-
+        for (int i = 0; i < length; i++) {
+            if (!isDigit(value.charAt(i))) {
+                return false;
+            }
+        }
         return true;
     }
 
-    public boolean isPizzaInMenu(Pizza pizza, Restaurant restaurant) {
-        return Arrays.asList(restaurant.menu()).contains(pizza);
+    private static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
     }
 
-    public boolean isPizzaInMenus(Pizza pizza, Restaurant[] restaurants) {
-        // check if pizza is in any menu
-        for (Restaurant restaurant : restaurants) {
-            Pizza[] menu = restaurant.menu();
-            for (Pizza menuPizza : menu) {
-                if (menuPizza.name().equals(pizza.name())) {
-                    return true;
-                }
+    public boolean isPizzaInMenu(Pizza pizza, Restaurant restaurant) {
+        for (Pizza menuPizza : restaurant.menu()) {
+            if (menuPizza.equals(pizza)) {
+                return true;
             }
         }
         return false;
+    }
 
+    public boolean isPizzaInMenus(Pizza pizza, Restaurant[] restaurants) {
+        // check if pizza is in any menu
+        return catalogueFor(restaurants).isDefined(pizza);
     }
 
     public Restaurant oneRestaurant(Pizza[] pizzas, Restaurant[] restaurants) {
         // check if pizzas are from one restaurant
-        // initialise array of length restaurants.length
-        // loop through menus and increment count for each restaurant if pizza is in menu
-        // if an array index is equal to the length of pizzas, return the restaurant at that index
-        int[] pizzaCount = new int[restaurants.length];
-        for (int i = 0; i < restaurants.length; i++) {
-            for (Pizza pizza : pizzas) {
-                if (isPizzaInMenu(pizza, restaurants[i])) {
-                    pizzaCount[i] += 1;
-                }
-            }
-            if (pizzaCount[i] == pizzas.length) {
-                return restaurants[i];
-            }
+        // the first restaurant whose menu has every pizza is returned, null if there is none
+        return catalogueFor(restaurants).findRestaurant(pizzas);
+    }
+
+    // the catalogue is rebuilt only when a different Restaurant[] is passed in, so a day's orders share one
+    private synchronized MenuCatalogue catalogueFor(Restaurant[] restaurants) {
+        if (menuCatalogue == null || menuCatalogue.getRestaurants() != restaurants) {
+            menuCatalogue = new MenuCatalogue(restaurants);
         }
-        return null;
+        return menuCatalogue;
     }
 
     public static boolean isRestaurantOpen(Restaurant restaurant, DayOfWeek date) {
-        return date == null || Arrays.asList(restaurant.openingDays()).contains(date);
+        if (date == null) {
+            return true;
+        }
+        for (DayOfWeek openingDay : restaurant.openingDays()) {
+            if (openingDay == date) {
+                return true;
+            }
+        }
+        return false;
     }
 
 
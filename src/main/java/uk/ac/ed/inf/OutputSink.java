@@ -0,0 +1,238 @@
+package uk.ac.ed.inf;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Where the result files are written, chosen with the pizzadronz.output.compression system property
+ * PLAIN writes the files as they are. GZIP writes them gzip compressed with .gz added to the name, and
+ * compresses on a background thread so it runs alongside whichever thread is producing the output
+ */
+public enum OutputSink {
+
+    PLAIN("") {
+        @Override
+        public OutputStream open(Path file) throws IOException {
+            return new BufferedOutputStream(Files.newOutputStream(file), BUFFER_SIZE);
+        }
+    },
+
+    GZIP(".gz") {
+        @Override
+        public OutputStream open(Path file) throws IOException {
+            OutputStream out = new GZIPOutputStream(Files.newOutputStream(resolve(file)), BUFFER_SIZE);
+            return new BackgroundOutputStream(out);
+        }
+    };
+
+    /**
+     * System property naming the sink for the result files, plain (the default) or gzip
+     */
+    public static final String COMPRESSION_PROPERTY = "pizzadronz.output.compression";
+
+    /**
+     * System property giving the directory the result files are written to, defaults to resultfiles
+     */
+    public static final String RESULT_DIR_PROPERTY = "pizzadronz.output.dir";
+
+    private static final String DEFAULT_RESULT_DIR = "resultfiles";
+
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    // buffers in flight between a writer and its background thread, the writer waits when all are in use
+    private static final int BUFFERS = 4;
+
+    // daemon threads, so a run never waits on an idle compressor to exit
+    private static final ExecutorService COMPRESSORS = Executors.newCachedThreadPool(task -> {
+        Thread thread = new Thread(task, "output-compressor");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final String extension;
+
+    OutputSink(String extension) {
+        this.extension = extension;
+    }
+
+    /**
+     * @return the sink named by the system property, PLAIN if it is not set
+     * @throws IllegalArgumentException if the property names an unknown sink
+     */
+    public static OutputSink configured() {
+        String name = System.getProperty(COMPRESSION_PROPERTY, "plain");
+        for (OutputSink sink : values()) {
+            if (sink.name().equalsIgnoreCase(name)) {
+                return sink;
+            }
+        }
+        throw new IllegalArgumentException("Unknown output compression. Expected plain or gzip, got " + name);
+    }
+
+    /**
+     * @param fileName the name of a result file, such as deliveries-2023-11-15.json
+     * @return the file in the configured result directory, which is created if it does not exist yet
+     */
+    public static Path resultFile(String fileName) {
+        Path resultDir = Paths.get(System.getProperty(RESULT_DIR_PROPERTY, DEFAULT_RESULT_DIR));
+        resultDir.toFile().mkdirs();
+        return resultDir.resolve(fileName);
+    }
+
+    /**
+     * @param file the name of an uncompressed result file
+     * @return the file this sink actually writes for it
+     */
+    public Path resolve(Path file) {
+        return extension.isEmpty() ? file : file.resolveSibling(file.getFileName() + extension);
+    }
+
+    /**
+     * @return true if this sink writes compressed files
+     */
+    public boolean isCompressed() {
+        return !extension.isEmpty();
+    }
+
+    /**
+     * Opens a buffered stream writing a result file through this sink
+     * Closing the stream finishes the file, and reports any failure to write it
+     * @param file the name of the uncompressed result file, extended as resolve gives
+     * @return the OutputStream
+     * @throws IOException if the file cannot be opened
+     */
+    public abstract OutputStream open(Path file) throws IOException;
+
+    /**
+     * Hands full buffers to a background thread which writes them to the underlying stream
+     * Buffers are recycled between the two threads, so a file of any size uses BUFFERS buffers
+     */
+    private static class BackgroundOutputStream extends OutputStream {
+
+        private final BlockingQueue<byte[]> free = new ArrayBlockingQueue<>(BUFFERS);
+        private final BlockingQueue<byte[]> full = new ArrayBlockingQueue<>(BUFFERS + 1);
+        private final int[] lengths = new int[BUFFERS];
+        private final byte[][] buffers = new byte[BUFFERS][];
+        private final Future<Void> writer;
+        private byte[] buffer;
+        private int count;
+        private boolean closed;
+
+        // an empty array marks the end of the stream
+        private static final byte[] END = new byte[0];
+
+        BackgroundOutputStream(OutputStream out) {
+            for (int i = 0; i < BUFFERS; i++) {
+                buffers[i] = new byte[BUFFER_SIZE];
+                free.add(buffers[i]);
+            }
+            buffer = free.poll();
+            writer = COMPRESSORS.submit(() -> drain(out));
+        }
+
+        // runs on the background thread, after a failure it keeps taking buffers so the writer is never stuck
+        private Void drain(OutputStream out) throws IOException, InterruptedException {
+            IOException failure = null;
+            try (out) {
+                while (true) {
+                    byte[] next = full.take();
+                    if (next == END) {
+                        break;
+                    }
+                    if (failure == null) {
+                        try {
+                            out.write(next, 0, lengths[indexOf(next)]);
+                        } catch (IOException e) {
+                            failure = e;
+                        } catch (RuntimeException e) {
+                            failure = new IOException(e);
+                        }
+                    }
+                    free.put(next);
+                }
+            }
+            if (failure != null) {
+                throw failure;
+            }
+            return null;
+        }
+
+        private int indexOf(byte[] chunk) {
+            for (int i = 0; i < BUFFERS; i++) {
+                if (buffers[i] == chunk) {
+                    return i;
+                }
+            }
+            throw new IllegalStateException("Unknown buffer");
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            if (count == BUFFER_SIZE) {
+                handOff();
+            }
+            buffer[count++] = (byte) b;
+        }
+
+        @Override
+        public void write(byte[] bytes, int offset, int length) throws IOException {
+            while (length > 0) {
+                if (count == BUFFER_SIZE) {
+                    handOff();
+                }
+                int copied = Math.min(length, BUFFER_SIZE - count);
+                System.arraycopy(bytes, offset, buffer, count, copied);
+                count += copied;
+                offset += copied;
+                length -= copied;
+            }
+        }
+
+        private void handOff() throws IOException {
+            if (closed) {
+                throw new IOException("Stream closed");
+            }
+            try {
+                lengths[indexOf(buffer)] = count;
+                full.put(buffer);
+                buffer = free.take();
+                count = 0;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException("Interrupted while writing", e);
+            }
+        }
+
+        // waits for the background thread to finish the file
+        @Override
+        public void close() throws IOException {
+            if (closed) {
+                return;
+            }
+            if (count > 0) {
+                handOff();
+            }
+            closed = true;
+            try {
+                full.put(END);
+                writer.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException("Interrupted while writing", e);
+            } catch (ExecutionException e) {
+                throw e.getCause() instanceof IOException ? (IOException) e.getCause() : new IOException(e.getCause());
+            }
+        }
+    }
+}
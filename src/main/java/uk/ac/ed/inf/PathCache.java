@@ -0,0 +1,262 @@
+package uk.ac.ed.inf;
+
+import uk.ac.ed.inf.ilp.data.LngLat;
+import uk.ac.ed.inf.ilp.data.NamedRegion;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Persistent on-disk cache of computed flightpaths
+ * The whole cache belongs to one geometry fingerprint, a hash of the no-fly zones and central area,
+ * and each path is keyed by a hash of its start, goal and that fingerprint.
+ * When the geometry changes the stored paths no longer match and are discarded on load.
+ * Paths are kept as FlightPaths, with the direction the search took for each move stored alongside the positions.
+ * The cache lives in a compact binary file, by default under resultfiles/cache
+ */
+public class PathCache {
+
+    /**
+     * System property naming the directory the cache file is kept in
+     */
+    public static final String CACHE_DIR_PROPERTY = "pizzadronz.cacheDir";
+
+    private static final String DEFAULT_CACHE_DIR = "resultfiles/cache";
+    private static final String CACHE_FILE = "flightpaths.cache";
+
+    // file header, the version is bumped whenever the format or the path finder's output changes
+    private static final int MAGIC = 0x50445043;
+    private static final int VERSION = 2;
+    private static final int HEADER_BYTES = 2 * Integer.BYTES + Long.BYTES + Integer.BYTES;
+
+    // bytes for one position, then for a path's start, goal and length
+    private static final int LNGLAT_BYTES = 2 * Double.BYTES;
+    private static final int PATH_HEADER_BYTES = 2 * LNGLAT_BYTES + Integer.BYTES;
+
+    private final Path cacheFile;
+    private final long geometryFingerprint;
+    private final Map<Long, CachedPath> paths = new HashMap<>();
+    private boolean modified;
+
+    /**
+     * Opens the cache in the configured cache directory
+     * @param noFlyZones the NamedRegion areas the paths avoid
+     * @param centralArea the central area the paths were planned with
+     */
+    public PathCache(NamedRegion[] noFlyZones, NamedRegion centralArea) {
+        this(Paths.get(System.getProperty(CACHE_DIR_PROPERTY, DEFAULT_CACHE_DIR)), noFlyZones, centralArea);
+    }
+
+    /**
+     * Opens the cache in the given directory, loading any paths stored for the same geometry
+     * @param cacheDir the directory the cache file is kept in
+     * @param noFlyZones the NamedRegion areas the paths avoid
+     * @param centralArea the central area the paths were planned with
+     */
+    public PathCache(Path cacheDir, NamedRegion[] noFlyZones, NamedRegion centralArea) {
+        this.cacheFile = cacheDir.resolve(CACHE_FILE);
+        this.geometryFingerprint = geometryFingerprint(noFlyZones, centralArea);
+        load();
+    }
+
+    /**
+     * Gets the cached path from start to goal
+     * @param start the LngLat starting position of the path
+     * @param goal the LngLat goal of the path
+     * @return the cached FlightPath, or null if it is not cached
+     */
+    public synchronized List<LngLat> get(LngLat start, LngLat goal) {
+        CachedPath cached = paths.get(pathKey(start, goal));
+        if (cached == null || !cached.start.equals(start) || !cached.goal.equals(goal)) {
+            return null;
+        }
+        return cached.path;
+    }
+
+    /**
+     * Stores a path from start to goal, null paths are not cached
+     * @param start the LngLat starting position of the path
+     * @param goal the LngLat goal of the path
+     * @param path the List<LngLat> path found by the path finder
+     */
+    public synchronized void put(LngLat start, LngLat goal, List<LngLat> path) {
+        if (path == null) {
+            return;
+        }
+        FlightPath flightPath = path instanceof FlightPath found ? found : FlightPath.of(path);
+        paths.put(pathKey(start, goal), new CachedPath(start, goal, flightPath));
+        modified = true;
+    }
+
+    /**
+     * @return the number of cached paths
+     */
+    public synchronized int size() {
+        return paths.size();
+    }
+
+    /**
+     * Writes the cache back to disk if anything was added since it was loaded
+     * The file is written to a temporary file next to the old one and moved into place, so a failed write
+     * never leaves a broken cache and two runs saving at once never share a temporary file
+     * If the write fails the temporary file is deleted and the old cache is left in place
+     */
+    public synchronized void save() {
+        if (!modified) {
+            return;
+        }
+        try {
+            Files.createDirectories(cacheFile.getParent());
+            Path tempFile = Files.createTempFile(cacheFile.getParent(), CACHE_FILE, ".tmp");
+            boolean moved = false;
+            try {
+                try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tempFile)))) {
+                    out.writeInt(MAGIC);
+                    out.writeInt(VERSION);
+                    out.writeLong(geometryFingerprint);
+                    out.writeInt(paths.size());
+                    for (CachedPath cached : paths.values()) {
+                        writeLngLat(out, cached.start);
+                        writeLngLat(out, cached.goal);
+                        out.writeInt(cached.path.size());
+                        for (int j = 0; j < cached.path.size(); j++) {
+                            out.writeDouble(cached.path.lng(j));
+                            out.writeDouble(cached.path.lat(j));
+                        }
+                        for (int j = 0; j < cached.path.size() - 1; j++) {
+                            out.writeByte(cached.path.direction(j));
+                        }
+                    }
+                }
+                Files.move(tempFile, cacheFile, StandardCopyOption.REPLACE_EXISTING);
+                moved = true;
+            } finally {
+                // a failed write or move would otherwise leave the temporary file behind
+                if (!moved) {
+                    Files.deleteIfExists(tempFile);
+                }
+            }
+            modified = false;
+        } catch (IOException e) {
+            System.err.println("Failed to write to file: " + cacheFile);
+        }
+    }
+
+    // reads the cache file, anything from a different version or geometry is ignored
+    // a corrupt or truncated file is treated as an empty cache, so the paths are planned again
+    private void load() {
+        if (!Files.isRegularFile(cacheFile)) {
+            return;
+        }
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(cacheFile)))) {
+            long remaining = Files.size(cacheFile) - HEADER_BYTES;
+            if (in.readInt() != MAGIC || in.readInt() != VERSION || in.readLong() != geometryFingerprint) {
+                return;
+            }
+            int count = in.readInt();
+            checkLength(count, PATH_HEADER_BYTES, remaining);
+            for (int i = 0; i < count; i++) {
+                LngLat start = readLngLat(in);
+                LngLat goal = readLngLat(in);
+                int length = in.readInt();
+                remaining -= PATH_HEADER_BYTES;
+                checkLength(length, LNGLAT_BYTES, remaining);
+                remaining -= (long) length * LNGLAT_BYTES + Math.max(length - 1, 0);
+                double[] coordinates = new double[2 * length];
+                for (int j = 0; j < coordinates.length; j++) {
+                    coordinates[j] = in.readDouble();
+                }
+                byte[] directions = new byte[Math.max(length - 1, 0)];
+                in.readFully(directions);
+                for (byte direction : directions) {
+                    if (direction < 0 || direction > LngLatHandler.HOVER_DIRECTION) {
+                        throw new IOException("Corrupt path cache: " + cacheFile);
+                    }
+                }
+                paths.put(pathKey(start, goal), new CachedPath(start, goal, FlightPath.of(coordinates, directions)));
+            }
+        } catch (IOException | RuntimeException e) {
+            System.err.println("Unable to read path cache, it will be rebuilt: " + cacheFile);
+            paths.clear();
+        }
+    }
+
+    // a count read from the file must fit in what is left of it, so a garbage count never allocates a huge list
+    private void checkLength(int length, int bytesEach, long remaining) throws IOException {
+        if (length < 0 || (long) length * bytesEach > remaining) {
+            throw new IOException("Corrupt path cache: " + cacheFile);
+        }
+    }
+
+    private long pathKey(LngLat start, LngLat goal) {
+        long hash = mix(geometryFingerprint, Double.doubleToLongBits(start.lng()));
+        hash = mix(hash, Double.doubleToLongBits(start.lat()));
+        hash = mix(hash, Double.doubleToLongBits(goal.lng()));
+        return mix(hash, Double.doubleToLongBits(goal.lat()));
+    }
+
+    /**
+     * Hashes the vertices of the no-fly zones and the central area into one fingerprint
+     * @param noFlyZones the NamedRegion areas the paths avoid
+     * @param centralArea the central area, may be null
+     * @return the 64 bit geometry fingerprint
+     */
+    public static long geometryFingerprint(NamedRegion[] noFlyZones, NamedRegion centralArea) {
+        long hash = mix(VERSION, noFlyZones.length);
+        for (NamedRegion zone : noFlyZones) {
+            hash = mixRegion(hash, zone);
+        }
+        return centralArea == null ? mix(hash, 0) : mixRegion(hash, centralArea);
+    }
+
+    private static long mixRegion(long hash, NamedRegion region) {
+        hash = mix(hash, region.vertices().length);
+        for (LngLat vertex : region.vertices()) {
+            hash = mix(hash, Double.doubleToLongBits(vertex.lng()));
+            hash = mix(hash, Double.doubleToLongBits(vertex.lat()));
+        }
+        return hash;
+    }
+
+    // combines a value into a running hash with the splitmix64 finaliser
+    private static long mix(long hash, long value) {
+        long z = hash * 31 + value + 0x9E3779B97F4A7C15L;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    private static void writeLngLat(DataOutputStream out, LngLat position) throws IOException {
+        out.writeDouble(position.lng());
+        out.writeDouble(position.lat());
+    }
+
+    private static LngLat readLngLat(DataInputStream in) throws IOException {
+        return new LngLat(in.readDouble(), in.readDouble());
+    }
+
+    /**
+     * A cached path with the start and goal it was found for
+     */
+    private static class CachedPath {
+        private final LngLat start;
+        private final LngLat goal;
+        private final FlightPath path;
+
+        CachedPath(LngLat start, LngLat goal, FlightPath path) {
+            this.start = start;
+            this.goal = goal;
+            this.path = path;
+        }
+    }
+}
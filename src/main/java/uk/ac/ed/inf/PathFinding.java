@@ -2,11 +2,21 @@ package uk.ac.ed.inf;
 
 import java.util.*;
 
+import uk.ac.ed.inf.ilp.constant.SystemConstants;
 import uk.ac.ed.inf.ilp.data.LngLat;
 import uk.ac.ed.inf.ilp.data.NamedRegion;
 
 public class PathFinding {
 
+    // number of lattice cells per drone move, positions within the same cell are treated as the same node
+    private static final int LATTICE_DIVISIONS = 4;
+
+    // side length of a lattice cell in degrees
+    private static final double LATTICE_CELL = SystemConstants.DRONE_MOVE_DISTANCE / LATTICE_DIVISIONS;
+
+    // one reusable lattice search engine per planning thread
+    private static final ThreadLocal<AStarEngine> ENGINES = ThreadLocal.withInitial(AStarEngine::new);
+
     /**
      * A* search algorithm for flightpath finding
      * @param start the LngLat starting position of the drone for the path
@@ -15,13 +25,24 @@ public class PathFinding {
      * @return a List<LngLat> of coordinates for the drone to follow to make up a valid path
      */
     public static List<LngLat> findPath(LngLat start, LngLat goal, NamedRegion[] noFlyZones) {
+        return findPath(start, goal, new PreparedNoFlyZones(noFlyZones));
+    }
+
+    /**
+     * A* search algorithm for flightpath finding against no-fly zones prepared once per run
+     * @param start the LngLat starting position of the drone for the path
+     * @param goal the LngLat end position of the drone for the path - drone need only be close to this
+     * @param noFlyZones the prepared areas the done cannot enter
+     * @return a List<LngLat> of coordinates for the drone to follow to make up a valid path
+     */
+    public static List<LngLat> findPath(LngLat start, LngLat goal, PreparedNoFlyZones noFlyZones) {
         LngLatHandler lngLatHandler = new LngLatHandler();
         Set<LngLat> closedSet = new HashSet<>();
         PriorityQueue<Node> openSet = new PriorityQueue<>(Comparator.comparingDouble(Node::getTotalCost));
         Map<LngLat, LngLat> cameFrom = new HashMap<>();
         Map<LngLat, Double> gScore = new HashMap<>();
 
-        if (isInNoFlyZone(start, noFlyZones) || isInNoFlyZone(goal, noFlyZones)) {
+        if (noFlyZones.contains(start) || noFlyZones.contains(goal)) {
             return null;
         }
 
@@ -41,9 +62,9 @@ public class PathFinding {
             closedSet.add(current.getLocation());
 
             // for each neighbour of the current node, check if it is unsuitable to be in the path
-            // (already visited or is in a noFlyZone)
+            // (already visited, is in a noFlyZone or the move to it crosses a noFlyZone)
             for (LngLat neighbor : getNeighbours(current.getLocation())) {
-                if (closedSet.contains(neighbor) || isInNoFlyZone(neighbor, noFlyZones)) {
+                if (closedSet.contains(neighbor) || noFlyZones.blocksMove(current.getLocation(), neighbor)) {
                     continue;
                 }
 
@@ -65,6 +86,65 @@ public class PathFinding {
         return null;
     }
 
+    /**
+     * A* search algorithm for flightpath finding on a quantised lattice
+     * Every position is snapped to a lattice cell derived from SystemConstants.DRONE_MOVE_DISTANCE
+     * and the search keys its sets and maps on the packed long cell key rather than the LngLat itself,
+     * so the same point reached by two different routes is only expanded once
+     * The path still follows real drone moves, each node keeps the position it was best reached at
+     * The search itself runs on the calling thread's AStarEngine, and the path it returns is a FlightPath
+     * holding the compass direction of each move as the search took it
+     * @param start the LngLat starting position of the drone for the path
+     * @param goal the LngLat end position of the drone for the path - drone need only be close to this
+     * @param noFlyZones the NamedRegion areas the done cannot enter
+     * @return a List<LngLat> of coordinates for the drone to follow to make up a valid path
+     */
+    public static List<LngLat> findLatticePath(LngLat start, LngLat goal, NamedRegion[] noFlyZones) {
+        return findLatticePath(start, goal, new PreparedNoFlyZones(noFlyZones));
+    }
+
+    /**
+     * A* search on a quantised lattice against no-fly zones prepared once per run, see findLatticePath
+     * @param start the LngLat starting position of the drone for the path
+     * @param goal the LngLat end position of the drone for the path - drone need only be close to this
+     * @param noFlyZones the prepared areas the done cannot enter
+     * @return a List<LngLat> of coordinates for the drone to follow to make up a valid path
+     */
+    public static List<LngLat> findLatticePath(LngLat start, LngLat goal, PreparedNoFlyZones noFlyZones) {
+        return latticeEngine().findPath(start, goal, noFlyZones);
+    }
+
+    /**
+     * Gets the search engine used by findLatticePath on the calling thread
+     * The engine and its storage are kept between searches, so it can be checked for expansion and allocation counts
+     * @return the calling thread's AStarEngine
+     */
+    public static AStarEngine latticeEngine() {
+        return ENGINES.get();
+    }
+
+    /**
+     * Snaps a position to its lattice cell and packs the integer cell coordinates into one long
+     * The longitude index is held in the upper 32 bits and the latitude index in the lower 32 bits
+     * @param position the LngLat to be snapped
+     * @return the packed lattice key of the position
+     */
+    public static long latticeKey(LngLat position) {
+        return latticeKey(position.lng(), position.lat());
+    }
+
+    /**
+     * Snaps a position given as raw coordinates to its lattice cell, see latticeKey(LngLat)
+     * @param lng the longitude of the position
+     * @param lat the latitude of the position
+     * @return the packed lattice key of the position
+     */
+    public static long latticeKey(double lng, double lat) {
+        long x = Math.round(lng / LATTICE_CELL);
+        long y = Math.round(lat / LATTICE_CELL);
+        return (x << 32) | (y & 0xFFFFFFFFL);
+    }
+
     /**
      * A node in the A* search algorithm
      * Composed of a LngLat location, a gScore and an hScore (heuristic)
@@ -89,22 +169,12 @@ public class PathFinding {
         }
     }
 
-    private static boolean isInNoFlyZone(LngLat position, NamedRegion[] regions) {
-        LngLatHandler lngLatHandler = new LngLatHandler();
-        for (NamedRegion region : regions) {
-            if (lngLatHandler.isInRegion(position, region)) {
-                return true;
-            }
-        }
-        return false;
-    }
-
     // loops through the 16 valid compass directions and returns a LngLat[] of all neighbours
     private static LngLat[] getNeighbours(LngLat current) {
         LngLatHandler lngLatHandler = new LngLatHandler();
-        LngLat[] neighbours = new LngLat[16];
-        for (int i = 0; i < 16; i++) {
-            neighbours[i] = lngLatHandler.nextPosition(current, i * 22.5);
+        LngLat[] neighbours = new LngLat[LngLatHandler.COMPASS_DIRECTIONS];
+        for (int i = 0; i < LngLatHandler.COMPASS_DIRECTIONS; i++) {
+            neighbours[i] = lngLatHandler.nextCompassPosition(current, i);
         }
         return neighbours;
     }
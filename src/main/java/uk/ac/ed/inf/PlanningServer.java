@@ -0,0 +1,209 @@
+package uk.ac.ed.inf;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import uk.ac.ed.inf.ilp.constant.OrderStatus;
+import uk.ac.ed.inf.ilp.data.LngLat;
+import uk.ac.ed.inf.ilp.data.Order;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.List;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Long-running planning service, so repeated runs skip JVM startup and reuse warm state
+ * The reference data, menu catalogue, prepared no-fly zones, path cache and flight planner are loaded once
+ * when the service starts and kept for every request. Each request fetches that date's orders, validates them,
+ * plans their paths and writes the usual three result files to resultfiles/, or OutputSink.RESULT_DIR_PROPERTY.
+ *
+ * GET /plan/{date} writes the files and returns a summary of the day
+ * GET /plan/{date}/{deliveries|flightpath|drone} writes the files and returns that file
+ * GET /isAlive returns true while the service is running
+ */
+public class PlanningServer {
+
+    private static final String PLAN_PATH = "/plan/";
+
+    private final String url;
+    private final DayProcessor dayProcessor;
+    private final boolean streaming = Boolean.parseBoolean(System.getProperty(App.STREAM_ORDERS_PROPERTY, "true"));
+    private HttpServer server;
+    private ExecutorService executor;
+
+    /**
+     * Creates the service, loading the reference data from the REST API
+     * @param start the LngLat the drone starts from and returns to
+     * @param url the url of the REST API
+     * @throws IOException if the REST API cannot be reached or its reference data is unusable
+     */
+    public PlanningServer(LngLat start, String url) throws IOException {
+        this.url = url;
+
+        DaySnapshot reference;
+        try {
+            reference = RestReader.fetchReferenceData(url, new ReferenceDataCache()).join();
+        } catch (CompletionException e) {
+            throw new IOException("Unable to obtain response from REST API. Error code: " + e.getCause(), e);
+        }
+        if (!reference.isAlive()) {
+            throw new IOException("The server is not alive. Expected a valid URL, got " + url);
+        }
+        if (reference.getRestaurants().length == 0 || reference.getNoFlyZones().length == 0
+                || reference.getCentralArea() == null) {
+            throw new IOException("Incomplete reference data. Expected restaurants, no fly zones and a central area");
+        }
+
+        this.dayProcessor = new DayProcessor(start, reference.getRestaurants(), reference.getNoFlyZones(),
+                reference.getCentralArea());
+    }
+
+    /**
+     * Starts listening for requests
+     * @param port the port to listen on, 0 for any free port
+     * @return the port the service is listening on
+     * @throws IOException if the port cannot be bound
+     */
+    public int start(int port) throws IOException {
+        server = HttpServer.create(new InetSocketAddress(port), 0);
+        server.createContext("/isAlive", exchange -> respond(exchange, 200, "text/plain", "true"));
+        server.createContext(PLAN_PATH, this::handlePlan);
+        executor = Executors.newFixedThreadPool(4);
+        server.setExecutor(executor);
+        server.start();
+        return server.getAddress().getPort();
+    }
+
+    /**
+     * Stops the service, waiting at most a second for requests in progress
+     */
+    public void stop() {
+        if (server != null) {
+            server.stop(1);
+            executor.shutdown();
+        }
+    }
+
+    /**
+     * Plans one day and writes its result files
+     * Days are planned one at a time, since two requests for the same date would write the same files
+     * Callers reading the files afterwards hold the same lock, on the DayProcessor, until they have read them
+     * @param date the date to plan
+     * @return the day's validated and delivered orders
+     * @throws IOException if the orders cannot be fetched or read
+     */
+    public DayProcessor.DayOrders plan(String date) throws IOException {
+        synchronized (dayProcessor) {
+            try {
+                DayProcessor.DayOrders day = dayProcessor.validate(date, RestReader.requestOrders(date, url).join(), streaming);
+                dayProcessor.planPaths(List.of(day));
+                dayProcessor.deliver(day);
+                return day;
+            } catch (CompletionException e) {
+                throw new IOException("Failed to obtain response from REST API for Orders. Error code: " + e.getCause(), e);
+            }
+        }
+    }
+
+    private void handlePlan(HttpExchange exchange) throws IOException {
+        String[] parts = exchange.getRequestURI().getPath().substring(PLAN_PATH.length()).split("/");
+        if (!exchange.getRequestMethod().equals("GET") || parts.length > 2) {
+            respond(exchange, 404, "text/plain", "Not found");
+            return;
+        }
+
+        String date = parts[0];
+        try {
+            LocalDate.parse(date);
+        } catch (DateTimeParseException e) {
+            respond(exchange, 400, "text/plain", "Incorrect date format. Expected YYYY-MM-DD, got " + date);
+            return;
+        }
+
+        Path file = null;
+        if (parts.length == 2) {
+            switch (parts[1]) {
+                case "deliveries" -> file = OutputSink.resultFile("deliveries-" + date + ".json");
+                case "flightpath" -> file = OutputSink.resultFile("flightpath-" + date + ".json");
+                case "drone" -> file = OutputSink.resultFile("drone-" + date + ".geojson");
+                default -> {
+                    respond(exchange, 404, "text/plain", "Not found");
+                    return;
+                }
+            }
+        }
+
+        OutputSink sink = OutputSink.configured();
+        DayProcessor.DayOrders day = null;
+        IOException failure = null;
+        IOException readFailure = null;
+        byte[] fileBytes = null;
+        // the file is read before the lock is released, so another request for the same date cannot rewrite it meanwhile
+        synchronized (dayProcessor) {
+            try {
+                day = plan(date);
+            } catch (IOException e) {
+                failure = e;
+            }
+            if (day != null && file != null) {
+                try {
+                    fileBytes = Files.readAllBytes(sink.resolve(file));
+                } catch (IOException e) {
+                    readFailure = e;
+                }
+            }
+        }
+
+        if (failure != null) {
+            System.err.println(failure.getMessage());
+            respond(exchange, 502, "text/plain", failure.getMessage());
+            return;
+        }
+
+        // the day was planned but its result file could not be written or read back
+        if (readFailure != null) {
+            System.err.println("Failed to read file: " + sink.resolve(file));
+            respond(exchange, 500, "text/plain", "Failed to read the result file for " + date);
+            return;
+        }
+
+        if (file != null) {
+            // compressed result files are sent as they are, for the client to decompress
+            if (sink.isCompressed()) {
+                exchange.getResponseHeaders().set("Content-Encoding", sink.name().toLowerCase());
+            }
+            respond(exchange, 200, file.toString().endsWith(".geojson") ? "application/geo+json" : "application/json",
+                    fileBytes);
+            return;
+        }
+
+        int delivered = 0;
+        for (Order order : day.getValidOrders()) {
+            if (order.getOrderStatus() == OrderStatus.DELIVERED) {
+                delivered++;
+            }
+        }
+        respond(exchange, 200, "application/json", "{\"date\":\"" + date + "\",\"orders\":" + day.getAllOrders().size()
+                + ",\"valid\":" + day.getValidOrders().size() + ",\"delivered\":" + delivered + "}");
+    }
+
+    private static void respond(HttpExchange exchange, int status, String contentType, String body) throws IOException {
+        respond(exchange, status, contentType, body.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static void respond(HttpExchange exchange, int status, String contentType, byte[] body) throws IOException {
+        exchange.getResponseHeaders().set("Content-Type", contentType);
+        exchange.sendResponseHeaders(status, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+}
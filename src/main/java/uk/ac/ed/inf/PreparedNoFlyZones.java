@@ -0,0 +1,79 @@
+package uk.ac.ed.inf;
+
+import uk.ac.ed.inf.ilp.data.LngLat;
+import uk.ac.ed.inf.ilp.data.NamedRegion;
+
+/**
+ * The day's no-fly zones prepared once per run for the path finder
+ * A RegionIndex answers most point tests from its grid without any polygon test
+ * and a SegmentIndex over the zone edges stops moves from clipping a zone's corner
+ */
+public class PreparedNoFlyZones {
+
+    private final NamedRegion[] noFlyZones;
+    private final RegionIndex zones;
+    private final SegmentIndex edges;
+
+    /**
+     * Prepares the no-fly zones for repeated point and move tests
+     * @param noFlyZones the NamedRegion areas the drone cannot enter
+     */
+    public PreparedNoFlyZones(NamedRegion[] noFlyZones) {
+        this.noFlyZones = noFlyZones;
+        zones = new RegionIndex(noFlyZones);
+        edges = new SegmentIndex(noFlyZones);
+    }
+
+    /**
+     * check if the position is in any of the no-fly zones (including their borders)
+     * @param lng the longitude of the position
+     * @param lat the latitude of the position
+     * @return if the position is inside a no-fly zone
+     */
+    public boolean contains(double lng, double lat) {
+        return zones.contains(lng, lat);
+    }
+
+    /**
+     * check if the position is in any of the no-fly zones (including their borders)
+     * @param position to check
+     * @return if the position is inside a no-fly zone
+     */
+    public boolean contains(LngLat position) {
+        return contains(position.lng(), position.lat());
+    }
+
+    /**
+     * check if a drone move is blocked by the no-fly zones
+     * a move is blocked if it ends inside a zone or its path crosses or touches a zone's border
+     * @param fromLng the longitude the move starts at
+     * @param fromLat the latitude the move starts at
+     * @param toLng the longitude the move ends at
+     * @param toLat the latitude the move ends at
+     * @return if the move is blocked
+     */
+    public boolean blocksMove(double fromLng, double fromLat, double toLng, double toLat) {
+        return contains(toLng, toLat) || edges.crosses(fromLng, fromLat, toLng, toLat);
+    }
+
+    /**
+     * check if a drone move is blocked by the no-fly zones, see blocksMove(double, double, double, double)
+     * @param from the position the move starts at
+     * @param to the position the move ends at
+     * @return if the move is blocked
+     */
+    public boolean blocksMove(LngLat from, LngLat to) {
+        return blocksMove(from.lng(), from.lat(), to.lng(), to.lat());
+    }
+
+    /**
+     * @return the NamedRegion no-fly zones these were prepared from
+     */
+    public NamedRegion[] getNoFlyZones() {
+        return noFlyZones;
+    }
+
+    public PreparedRegion[] getRegions() {
+        return zones.getRegions();
+    }
+}
@@ -0,0 +1,151 @@
+package uk.ac.ed.inf;
+
+import uk.ac.ed.inf.ilp.data.LngLat;
+import uk.ac.ed.inf.ilp.data.NamedRegion;
+
+/**
+ * A NamedRegion prepared once for repeated point-in-region tests
+ * Holds the region's bounding box and the per-edge data used by the ray casting in
+ * LngLatHandler.isInRegion in flat double[] arrays, so most points are rejected by the box test alone
+ */
+public class PreparedRegion {
+
+    private final String name;
+
+    // axis-aligned bounding box of the region
+    private final double minLng;
+    private final double maxLng;
+    private final double minLat;
+    private final double maxLat;
+
+    // edge i runs from vertex i to vertex (i + 1) % n
+    private final double[] vertexLng;
+    private final double[] vertexLat;
+    private final double[] edgeMinLat;
+    private final double[] edgeMaxLat;
+    private final double[] edgeMaxLng;
+    // change in longitude per unit of latitude along the edge, measured from the edge's start vertex
+    private final double[] edgeSlope;
+
+    /**
+     * Prepares a region for point-in-region tests
+     * @param region the NamedRegion as a closed polygon
+     */
+    public PreparedRegion(NamedRegion region) {
+        LngLat[] coords = region.vertices();
+        int n = coords.length;
+
+        name = region.name();
+        vertexLng = new double[n];
+        vertexLat = new double[n];
+        edgeMinLat = new double[n];
+        edgeMaxLat = new double[n];
+        edgeMaxLng = new double[n];
+        edgeSlope = new double[n];
+
+        double boxMinLng = Double.POSITIVE_INFINITY;
+        double boxMaxLng = Double.NEGATIVE_INFINITY;
+        double boxMinLat = Double.POSITIVE_INFINITY;
+        double boxMaxLat = Double.NEGATIVE_INFINITY;
+
+        for (int i = 0; i < n; i++) {
+            LngLat p1 = coords[i];
+            LngLat p2 = coords[(i + 1) % n];
+
+            vertexLng[i] = p1.lng();
+            vertexLat[i] = p1.lat();
+            edgeMaxLng[i] = Math.max(p1.lng(), p2.lng());
+
+            // horizontal edges never cross the ray, an empty latitude range skips them
+            if (p1.lat() == p2.lat()) {
+                edgeMinLat[i] = p1.lat();
+                edgeMaxLat[i] = p1.lat();
+            }
+            else {
+                edgeMinLat[i] = Math.min(p1.lat(), p2.lat());
+                edgeMaxLat[i] = Math.max(p1.lat(), p2.lat());
+                edgeSlope[i] = (p2.lng() - p1.lng()) / (p2.lat() - p1.lat());
+            }
+
+            boxMinLng = Math.min(boxMinLng, p1.lng());
+            boxMaxLng = Math.max(boxMaxLng, p1.lng());
+            boxMinLat = Math.min(boxMinLat, p1.lat());
+            boxMaxLat = Math.max(boxMaxLat, p1.lat());
+        }
+
+        minLng = boxMinLng;
+        maxLng = boxMaxLng;
+        minLat = boxMinLat;
+        maxLat = boxMaxLat;
+    }
+
+    /**
+     * check if the position is in the region (includes the border), as LngLatHandler.isInRegion
+     * @param lng the longitude of the position
+     * @param lat the latitude of the position
+     * @return if the position is inside the region (including the border)
+     */
+    public boolean contains(double lng, double lat) {
+        if (!boxContains(lng, lat)) {
+            return false;
+        }
+
+        int count = 0;
+        int n = vertexLng.length;
+
+        // ray casting algorithm
+        for (int i = 0; i < n; i++) {
+            if (lng == vertexLng[i] && lat == vertexLat[i]) {
+                return true;
+            }
+
+            if (lat > edgeMinLat[i] && lat <= edgeMaxLat[i] && lng <= edgeMaxLng[i]) {
+                double xinters = (lat - vertexLat[i]) * edgeSlope[i] + vertexLng[i];
+                if (lng <= xinters) {
+                    count++;
+                }
+            }
+        }
+        // if count is odd, the point is within the region
+        return count % 2 == 1;
+    }
+
+    /**
+     * check if the position is in the region (includes the border)
+     * @param position to check
+     * @return if the position is inside the region (including the border)
+     */
+    public boolean contains(LngLat position) {
+        return contains(position.lng(), position.lat());
+    }
+
+    /**
+     * check if the position is inside the region's bounding box
+     * @param lng the longitude of the position
+     * @param lat the latitude of the position
+     * @return if the position is inside the bounding box (including the border)
+     */
+    public boolean boxContains(double lng, double lat) {
+        return lng >= minLng && lng <= maxLng && lat >= minLat && lat <= maxLat;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public double getMinLng() {
+        return minLng;
+    }
+
+    public double getMaxLng() {
+        return maxLng;
+    }
+
+    public double getMinLat() {
+        return minLat;
+    }
+
+    public double getMaxLat() {
+        return maxLat;
+    }
+}
@@ -0,0 +1,202 @@
+package uk.ac.ed.inf;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+/**
+ * Disk-backed cache of the REST API's reference data: restaurants, no-fly zones and the central area
+ * Each response body is kept with its ETag and Last-Modified headers and the time it was fetched.
+ * A copy younger than the TTL is used without asking the server, an older one is revalidated with
+ * If-None-Match and If-Modified-Since so an unchanged body is not downloaded again.
+ * When the server does not respond within the RestReader timeout, or in offline mode, the last good copy is used instead.
+ * Copies are kept in the same directory as the PathCache, one file per URL
+ */
+public class ReferenceDataCache {
+
+    /**
+     * System property setting how many seconds a cached copy is used without revalidating it, defaults to 600
+     */
+    public static final String TTL_PROPERTY = "pizzadronz.reference.ttlSeconds";
+
+    /**
+     * System property which, when true, serves cached copies without contacting the server at all
+     */
+    public static final String OFFLINE_PROPERTY = "pizzadronz.reference.offline";
+
+    private static final String DEFAULT_CACHE_DIR = "resultfiles/cache";
+    private static final long DEFAULT_TTL_SECONDS = 600;
+
+    private static final int MAGIC = 0x50445246;
+    private static final int VERSION = 1;
+
+    private final Path cacheDir;
+    private final Duration ttl;
+    private final boolean offline;
+    private final Clock clock;
+
+    /**
+     * Opens the cache with the configured directory, TTL and offline mode
+     */
+    public ReferenceDataCache() {
+        this(Paths.get(System.getProperty(PathCache.CACHE_DIR_PROPERTY, DEFAULT_CACHE_DIR)),
+                Duration.ofSeconds(Long.getLong(TTL_PROPERTY, DEFAULT_TTL_SECONDS)),
+                Boolean.getBoolean(OFFLINE_PROPERTY),
+                Clock.systemUTC());
+    }
+
+    /**
+     * Opens the cache
+     * @param cacheDir the directory the cached copies are kept in
+     * @param ttl how long a cached copy is used before it is revalidated
+     * @param offline whether cached copies are used without contacting the server
+     * @param clock the clock giving the time copies are fetched and checked
+     */
+    public ReferenceDataCache(Path cacheDir, Duration ttl, boolean offline, Clock clock) {
+        this.cacheDir = cacheDir;
+        this.ttl = ttl;
+        this.offline = offline;
+        this.clock = clock;
+    }
+
+    /**
+     * @return whether cached copies are used without contacting the server
+     */
+    public boolean isOffline() {
+        return offline;
+    }
+
+    /**
+     * Gets a reference data body, from the cache where it is fresh enough and from the server otherwise
+     * @param client the client used to contact the server
+     * @param uri the full URL of the endpoint
+     * @param name the name of the data, used in error messages
+     * @return a future completing with the response body, or exceptionally if there is neither a response nor a cached copy
+     */
+    public CompletableFuture<byte[]> fetch(HttpClient client, String uri, String name) {
+        CachedBody cached = load(uri);
+        if (cached != null && (offline || clock.instant().isBefore(cached.fetchedAt.plus(ttl)))) {
+            return CompletableFuture.completedFuture(cached.body);
+        }
+
+        HttpRequest.Builder request = HttpRequest.newBuilder().uri(URI.create(uri)).timeout(RestReader.timeout());
+        if (cached != null && !cached.etag.isEmpty()) {
+            request.header("If-None-Match", cached.etag);
+        }
+        if (cached != null && !cached.lastModified.isEmpty()) {
+            request.header("If-Modified-Since", cached.lastModified);
+        }
+
+        return client.sendAsync(request.build(), HttpResponse.BodyHandlers.ofByteArray()).handle((response, failure) -> {
+            if (failure != null) {
+                if (cached == null) {
+                    throw failure instanceof CompletionException ? (CompletionException) failure : new CompletionException(failure);
+                }
+                System.err.println("No response from REST API for " + name + ", using the copy cached at " + cached.fetchedAt);
+                return cached.body;
+            }
+
+            // not modified, the cached copy is good for another TTL
+            if (response.statusCode() == 304 && cached != null) {
+                save(uri, new CachedBody(cached.etag, cached.lastModified, clock.instant(), cached.body));
+                return cached.body;
+            }
+
+            RestReader.checkStatus(response, name);
+            save(uri, new CachedBody(response.headers().firstValue("ETag").orElse(""),
+                    response.headers().firstValue("Last-Modified").orElse(""), clock.instant(), response.body()));
+            return response.body();
+        });
+    }
+
+    private Path cacheFile(String uri) {
+        return cacheDir.resolve(UUID.nameUUIDFromBytes(uri.getBytes(StandardCharsets.UTF_8)) + ".ref");
+    }
+
+    // reads the cached copy for a URL, anything unreadable or from a different version is ignored
+    private CachedBody load(String uri) {
+        Path file = cacheFile(uri);
+        if (!Files.isRegularFile(file)) {
+            return null;
+        }
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            if (in.readInt() != MAGIC || in.readInt() != VERSION || !in.readUTF().equals(uri)) {
+                return null;
+            }
+            String etag = in.readUTF();
+            String lastModified = in.readUTF();
+            Instant fetchedAt = Instant.ofEpochMilli(in.readLong());
+            byte[] body = new byte[in.readInt()];
+            in.readFully(body);
+            return new CachedBody(etag, lastModified, fetchedAt, body);
+        } catch (IOException e) {
+            System.err.println("Unable to read cached reference data, it will be fetched again: " + file);
+            return null;
+        }
+    }
+
+    // the file is written next to the old one and moved into place, so a failed write never leaves a broken copy
+    // or a stray temporary file
+    private void save(String uri, CachedBody cached) {
+        Path file = cacheFile(uri);
+        try {
+            Files.createDirectories(cacheDir);
+            Path tempFile = Files.createTempFile(cacheDir, file.getFileName().toString(), ".tmp");
+            boolean moved = false;
+            try {
+                try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tempFile)))) {
+                    out.writeInt(MAGIC);
+                    out.writeInt(VERSION);
+                    out.writeUTF(uri);
+                    out.writeUTF(cached.etag);
+                    out.writeUTF(cached.lastModified);
+                    out.writeLong(cached.fetchedAt.toEpochMilli());
+                    out.writeInt(cached.body.length);
+                    out.write(cached.body);
+                }
+                Files.move(tempFile, file, StandardCopyOption.REPLACE_EXISTING);
+                moved = true;
+            } finally {
+                if (!moved) {
+                    Files.deleteIfExists(tempFile);
+                }
+            }
+        } catch (IOException e) {
+            System.err.println("Failed to write to file: " + file);
+        }
+    }
+
+    /**
+     * A cached response body with the validators it was served with
+     */
+    private static class CachedBody {
+        private final String etag;
+        private final String lastModified;
+        private final Instant fetchedAt;
+        private final byte[] body;
+
+        CachedBody(String etag, String lastModified, Instant fetchedAt, byte[] body) {
+            this.etag = etag;
+            this.lastModified = lastModified;
+            this.fetchedAt = fetchedAt;
+            this.body = body;
+        }
+    }
+}
@@ -0,0 +1,200 @@
+package uk.ac.ed.inf;
+
+import uk.ac.ed.inf.ilp.constant.SystemConstants;
+import uk.ac.ed.inf.ilp.data.LngLat;
+import uk.ac.ed.inf.ilp.data.NamedRegion;
+
+/**
+ * Fixed lng/lat grid over a set of NamedRegions for point-in-region queries
+ * Every cell is tagged as fully inside a region, fully outside all regions or on a region's boundary,
+ * so only points in boundary cells need any polygon test
+ */
+public class RegionIndex {
+
+    private static final byte OUTSIDE = 0;
+    private static final byte INSIDE = 1;
+    private static final byte BOUNDARY = 2;
+
+    // cells are widened by this much when checking for edges, so rounding at a cell border cannot misplace a point
+    private static final double CELL_MARGIN = 1e-9;
+
+    // the most cells a grid may have, larger cells are used rather than go past it
+    static final int MAX_CELLS = 1 << 20;
+
+    private final PreparedRegion[] regions;
+
+    // grid origin, size and the tag of each cell
+    private final double originLng;
+    private final double originLat;
+    private final double cellSize;
+    private final int columns;
+    private final int rows;
+    private final byte[] cells;
+
+    /**
+     * Builds the index with cells one drone move wide
+     * @param regions the NamedRegions as closed polygons
+     */
+    public RegionIndex(NamedRegion[] regions) {
+        this(regions, SystemConstants.DRONE_MOVE_DISTANCE);
+    }
+
+    /**
+     * Builds the index with the given cell size, or larger cells if the regions would need more than MAX_CELLS
+     * @param regions the NamedRegions as closed polygons
+     * @param cellSize the side length of a grid cell in degrees
+     * @throws IllegalArgumentException if the cell size is not a positive number
+     */
+    public RegionIndex(NamedRegion[] regions, double cellSize) {
+        if (!(cellSize > 0)) {
+            throw new IllegalArgumentException("Cell size must be positive, got " + cellSize);
+        }
+        this.regions = new PreparedRegion[regions.length];
+
+        double minLng = Double.POSITIVE_INFINITY;
+        double minLat = Double.POSITIVE_INFINITY;
+        double maxLng = Double.NEGATIVE_INFINITY;
+        double maxLat = Double.NEGATIVE_INFINITY;
+
+        for (int i = 0; i < regions.length; i++) {
+            this.regions[i] = new PreparedRegion(regions[i]);
+            minLng = Math.min(minLng, this.regions[i].getMinLng());
+            minLat = Math.min(minLat, this.regions[i].getMinLat());
+            maxLng = Math.max(maxLng, this.regions[i].getMaxLng());
+            maxLat = Math.max(maxLat, this.regions[i].getMaxLat());
+        }
+
+        if (regions.length == 0) {
+            this.cellSize = cellSize;
+            originLng = 0;
+            originLat = 0;
+            columns = 0;
+            rows = 0;
+            cells = new byte[0];
+            return;
+        }
+
+        cellSize = fitCellSize(cellSize, maxLng - minLng, maxLat - minLat);
+        this.cellSize = cellSize;
+        originLng = minLng;
+        originLat = minLat;
+        columns = (int) ((maxLng - minLng) / cellSize) + 1;
+        rows = (int) ((maxLat - minLat) / cellSize) + 1;
+        cells = new byte[columns * rows];
+
+        // cells crossed by any edge are boundary cells
+        for (NamedRegion region : regions) {
+            LngLat[] coords = region.vertices();
+            int n = coords.length;
+            for (int i = 0; i < n; i++) {
+                markBoundary(coords[i], coords[(i + 1) % n]);
+            }
+        }
+
+        // every other cell is wholly inside or wholly outside, so its centre decides for all of it
+        for (int r = 0; r < rows; r++) {
+            for (int c = 0; c < columns; c++) {
+                int cell = r * columns + c;
+                if (cells[cell] == BOUNDARY) {
+                    continue;
+                }
+                double centreLng = originLng + (c + 0.5) * cellSize;
+                double centreLat = originLat + (r + 0.5) * cellSize;
+                cells[cell] = regionsContain(centreLng, centreLat) ? INSIDE : OUTSIDE;
+            }
+        }
+    }
+
+    /**
+     * the cell size for a grid over the given extent, doubled from the one asked for until the grid fits in MAX_CELLS
+     * so a region far larger than the drone ever flies over cannot make the grid use unbounded memory
+     * @param cellSize the side length of a grid cell asked for, in degrees
+     * @param width the longitude extent of the grid
+     * @param height the latitude extent of the grid
+     * @return the side length of a grid cell to use
+     */
+    static double fitCellSize(double cellSize, double width, double height) {
+        // worked out in doubles, so an extent too large for an int cannot overflow
+        while ((width / cellSize + 1) * (height / cellSize + 1) > MAX_CELLS && Double.isFinite(cellSize)) {
+            cellSize *= 2;
+        }
+        return cellSize;
+    }
+
+    /**
+     * check if the position is in any of the indexed regions (including their borders)
+     * @param lng the longitude of the position
+     * @param lat the latitude of the position
+     * @return if the position is inside a region
+     */
+    public boolean contains(double lng, double lat) {
+        int c = (int) Math.floor((lng - originLng) / cellSize);
+        int r = (int) Math.floor((lat - originLat) / cellSize);
+        if (c < 0 || r < 0 || c >= columns || r >= rows) {
+            return false;
+        }
+
+        byte tag = cells[r * columns + c];
+        if (tag == BOUNDARY) {
+            return regionsContain(lng, lat);
+        }
+        return tag == INSIDE;
+    }
+
+    /**
+     * check if the position is in any of the indexed regions (including their borders)
+     * @param position to check
+     * @return if the position is inside a region
+     */
+    public boolean contains(LngLat position) {
+        return contains(position.lng(), position.lat());
+    }
+
+    public PreparedRegion[] getRegions() {
+        return regions;
+    }
+
+    private boolean regionsContain(double lng, double lat) {
+        for (PreparedRegion region : regions) {
+            if (region.contains(lng, lat)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // tags every cell the edge from p1 to p2 passes through (or touches) as a boundary cell
+    private void markBoundary(LngLat p1, LngLat p2) {
+        int minColumn = Math.max(0, (int) Math.floor((Math.min(p1.lng(), p2.lng()) - originLng) / cellSize) - 1);
+        int maxColumn = Math.min(columns - 1, (int) Math.floor((Math.max(p1.lng(), p2.lng()) - originLng) / cellSize) + 1);
+        int minRow = Math.max(0, (int) Math.floor((Math.min(p1.lat(), p2.lat()) - originLat) / cellSize) - 1);
+        int maxRow = Math.min(rows - 1, (int) Math.floor((Math.max(p1.lat(), p2.lat()) - originLat) / cellSize) + 1);
+
+        for (int r = minRow; r <= maxRow; r++) {
+            for (int c = minColumn; c <= maxColumn; c++) {
+                double left = originLng + c * cellSize - CELL_MARGIN;
+                double right = originLng + (c + 1) * cellSize + CELL_MARGIN;
+                double bottom = originLat + r * cellSize - CELL_MARGIN;
+                double top = originLat + (r + 1) * cellSize + CELL_MARGIN;
+                if (segmentTouchesCell(p1, p2, left, right, bottom, top)) {
+                    cells[r * columns + c] = BOUNDARY;
+                }
+            }
+        }
+    }
+
+    private static boolean segmentTouchesCell(LngLat p1, LngLat p2, double left, double right, double bottom, double top) {
+        // an end of the segment inside the cell
+        if (p1.lng() >= left && p1.lng() <= right && p1.lat() >= bottom && p1.lat() <= top) {
+            return true;
+        }
+        if (p2.lng() >= left && p2.lng() <= right && p2.lat() >= bottom && p2.lat() <= top) {
+            return true;
+        }
+        // otherwise the segment must cross one of the cell's sides
+        return SegmentIndex.segmentsIntersect(p1.lng(), p1.lat(), p2.lng(), p2.lat(), left, bottom, right, bottom)
+                || SegmentIndex.segmentsIntersect(p1.lng(), p1.lat(), p2.lng(), p2.lat(), right, bottom, right, top)
+                || SegmentIndex.segmentsIntersect(p1.lng(), p1.lat(), p2.lng(), p2.lat(), right, top, left, top)
+                || SegmentIndex.segmentsIntersect(p1.lng(), p1.lat(), p2.lng(), p2.lat(), left, top, left, bottom);
+    }
+}
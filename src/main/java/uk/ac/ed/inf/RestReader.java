@@ -4,15 +4,160 @@ import uk.ac.ed.inf.ilp.data.Order;
 import uk.ac.ed.inf.ilp.data.Restaurant;
 import uk.ac.ed.inf.ilp.data.NamedRegion;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.net.http.HttpClient;
 import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
 import java.net.URI;
-import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Consumer;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectReader;
 
 public class RestReader {
 
+    /**
+     * System property setting how many seconds a request may take to connect, and then to be answered, defaults to 10
+     */
+    public static final String TIMEOUT_PROPERTY = "pizzadronz.rest.timeoutSeconds";
+
+    private static final long DEFAULT_TIMEOUT_SECONDS = 10;
+
+    // one client is shared by every request, so connections are reused and HTTP/2 requests can be multiplexed
+    private static final HttpClient CLIENT = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_2)
+            .connectTimeout(timeout())
+            .build();
+
+    /**
+     * @return how long a request may wait to connect or for its response, as set by TIMEOUT_PROPERTY
+     */
+    static Duration timeout() {
+        return Duration.ofSeconds(Long.getLong(TIMEOUT_PROPERTY, DEFAULT_TIMEOUT_SECONDS));
+    }
+
+    /**
+     * request everything needed for a day's run at once from the url passed in the command line
+     * the isAlive, restaurants, noFlyZones, centralArea and orders requests are all sent concurrently,
+     * so starting up takes about one round trip rather than one per endpoint
+     * the reference data goes through a ReferenceDataCache with the configured TTL and offline mode
+     * @param date the date to get the orders from
+     * @param url the url of the REST API
+     * @return a future completing with the DaySnapshot once every response has arrived,
+     * or exceptionally if any request or conversion fails
+     */
+    public static CompletableFuture<DaySnapshot> fetchDaySnapshot(String date, String url) {
+        return fetchDaySnapshot(date, url, new ReferenceDataCache());
+    }
+
+    /**
+     * request everything needed for a day's run at once, taking the reference data from the given cache where it can
+     * @param date the date to get the orders from
+     * @param url the url of the REST API
+     * @param referenceData the cache of restaurants, no-fly zones and the central area
+     * @return a future completing with the DaySnapshot once every response has arrived,
+     * or exceptionally if any request or conversion fails
+     */
+    public static CompletableFuture<DaySnapshot> fetchDaySnapshot(String date, String url, ReferenceDataCache referenceData) {
+        return combine(fetchReferenceData(url, referenceData), requestOrders(date, url));
+    }
+
+    /**
+     * join the reference data and the orders body into one DaySnapshot
+     * if the reference data fails the orders body is never handed on, so it is closed to free its connection
+     * @param reference a future completing with the reference data
+     * @param orders a future completing with the unread body of the orders response
+     * @return a future completing with the DaySnapshot once both have arrived, or exceptionally if either fails
+     */
+    static CompletableFuture<DaySnapshot> combine(CompletableFuture<DaySnapshot> reference, CompletableFuture<InputStream> orders) {
+        CompletableFuture<DaySnapshot> day = reference.thenCombine(orders, (snapshot, ordersBody) -> new DaySnapshot(
+                snapshot.isAlive(), snapshot.getRestaurants(), snapshot.getNoFlyZones(), snapshot.getCentralArea(), ordersBody));
+        day.whenComplete((snapshot, failure) -> {
+            if (failure != null) {
+                orders.thenAccept(ordersBody -> {
+                    try {
+                        ordersBody.close();
+                    } catch (IOException e) {
+                        System.err.println("Failed to close the orders response: " + e);
+                    }
+                });
+            }
+        });
+        return day;
+    }
+
+    /**
+     * request the isAlive flag and the reference data at once, without any orders
+     * in offline mode isAlive is not requested, and if the server does not answer it the run goes ahead
+     * as long as the cache can supply the reference data, so the last good copy is used rather than failing
+     * @param url the url of the REST API
+     * @param referenceData the cache of restaurants, no-fly zones and the central area
+     * @return a future completing with a DaySnapshot that has no orders body,
+     * or exceptionally if the reference data can be neither fetched nor taken from the cache
+     */
+    public static CompletableFuture<DaySnapshot> fetchReferenceData(String url, ReferenceDataCache referenceData) {
+        CompletableFuture<Boolean> alive = referenceData.isOffline()
+                ? CompletableFuture.completedFuture(true)
+                : sendAsync(url+"/isAlive", HttpResponse.BodyHandlers.ofString())
+                        .handle((response, failure) -> failure != null || response.body().equals("true"));
+        CompletableFuture<Restaurant[]> restaurants = referenceData.fetch(CLIENT, url+"/restaurants", "Restaurants")
+                .thenApply(body -> readBody(JsonMapping.restaurantsReader(), body, "Restaurants"));
+        CompletableFuture<NamedRegion[]> noFlyZones = referenceData.fetch(CLIENT, url+"/noFlyZones", "NoFlyZones")
+                .thenApply(body -> readBody(JsonMapping.namedRegionsReader(), body, "NoFlyZones"));
+        CompletableFuture<NamedRegion> centralArea = referenceData.fetch(CLIENT, url+"/centralArea", "CentralArea")
+                .thenApply(body -> readBody(JsonMapping.namedRegionReader(), body, "CentralArea"));
+
+        return CompletableFuture.allOf(alive, restaurants, noFlyZones, centralArea)
+                .thenApply(ignored -> new DaySnapshot(alive.join(), restaurants.join(), noFlyZones.join(),
+                        centralArea.join(), null));
+    }
+
+    /**
+     * request the orders for a date without waiting for them
+     * the future completes as soon as the headers arrive, the body is left to be read as a stream
+     * @param date the date to get the orders from
+     * @param url the url of the REST API
+     * @return a future completing with the unread body of the orders response
+     */
+    public static CompletableFuture<InputStream> requestOrders(String date, String url) {
+        return sendAsync(url+"/orders/"+date, HttpResponse.BodyHandlers.ofInputStream())
+                .thenApply(response -> {
+                    checkStatus(response, "Orders");
+                    return response.body();
+                });
+    }
+
+    private static <T> CompletableFuture<HttpResponse<T>> sendAsync(String uri, HttpResponse.BodyHandler<T> bodyHandler) {
+        HttpRequest request = HttpRequest.newBuilder()
+                .uri(URI.create(uri))
+                .timeout(timeout())
+                .build();
+        return CLIENT.sendAsync(request, bodyHandler);
+    }
+
+    private static <T> T readBody(ObjectReader reader, byte[] body, String name) {
+        try {
+            return reader.readValue(body);
+        }
+        catch (IOException e) {
+            throw new CompletionException(new IOException("Unable to read ObjectMapper value for " + name + ". \nError code: " + e, e));
+        }
+    }
+
+    /**
+     * fail the request the response belongs to unless it was successful
+     * @param response the response to check
+     * @param name the name of the data requested, used in the error message
+     */
+    static void checkStatus(HttpResponse<?> response, String name) {
+        if (response.statusCode() != 200) {
+            throw new CompletionException(new IOException("Unsuccessful API request for " + name + ". \nError code: " + response.statusCode()));
+        }
+    }
+
     /**
      * read the order data from the date and url passed in the command line
      * takes the json and converts to array of Order objects
@@ -23,12 +168,13 @@ public class RestReader {
     public static Order[] getRequestedOrders(String date, String url) {
         HttpRequest request = HttpRequest.newBuilder()
                 .uri(URI.create(url+"/orders/"+date))
+                .timeout(timeout())
                 .build();
         HttpResponse<String> response = null;
 
         // HttpRequest is used to read from the REST API
         try {
-            response = HttpClient.newHttpClient().send(request, HttpResponse.BodyHandlers.ofString());
+            response = CLIENT.send(request, HttpResponse.BodyHandlers.ofString());
         } catch (Exception e) {
             System.err.println("Failed to obtain response from REST API for Orders. \nError code: " + e);
             System.exit(1);
@@ -36,13 +182,10 @@ public class RestReader {
 
         // the response code is checked to see if the request was successful
         // it is then converted to an array of Order objects
-        // ObjectMapper is used to convert the json to an array of Order objects
+        // the shared ObjectReader is used to convert the json to an array of Order objects
         if (response.statusCode() == 200) {
-            ObjectMapper objectMapper = new ObjectMapper();
-            objectMapper.registerModule(new JavaTimeModule());
-
             try {
-                return objectMapper.readValue(response.body(), Order[].class);
+                return JsonMapping.ordersReader().readValue(response.body());
             }
             catch (Exception e) {
                 System.err.println("Unable to read ObjectMapper value for Orders. \nError code: " + e);
@@ -58,6 +201,25 @@ public class RestReader {
         return new Order[0];
     }
 
+    /**
+     * read a json array of orders from a stream one element at a time
+     * @param in the stream holding the json array
+     * @param orderConsumer receives each order as soon as it is parsed
+     * @return the number of orders read
+     * @throws IOException if the stream cannot be read or is not an array of orders
+     */
+    public static int readOrders(InputStream in, Consumer<Order> orderConsumer) throws IOException {
+        // a MappingIterator over a root level array returns its elements one by one
+        int count = 0;
+        try (MappingIterator<Order> orders = JsonMapping.orderReader().readValues(in)) {
+            while (orders.hasNextValue()) {
+                orderConsumer.accept(orders.nextValue());
+                count++;
+            }
+        }
+        return count;
+    }
+
     /**
      * read the restaurant data from the url passed in the command line
      * takes the json and converts to array of Restaurant objects
@@ -67,12 +229,13 @@ public class RestReader {
     public static Restaurant[] getRequestedRestaurants(String url) {
         HttpRequest request = HttpRequest.newBuilder()
                 .uri(URI.create(url+"/restaurants"))
+                .timeout(timeout())
                 .build();
         HttpResponse<String> response = null;
 
         // HttpRequest is used to read from the REST API
         try {
-            response = HttpClient.newHttpClient().send(request, HttpResponse.BodyHandlers.ofString());
+            response = CLIENT.send(request, HttpResponse.BodyHandlers.ofString());
         } catch (Exception e) {
             System.err.println("Unable to obtain response from REST API for Restaurants. \nError code: " + e);
             System.exit(1);
@@ -80,11 +243,10 @@ public class RestReader {
 
         // the response code is checked to see if the request was successful
         // it is then converted to an array of Restaurant objects
-        // ObjectMapper is used to convert the json to an array of Restaurant objects
+        // the shared ObjectReader is used to convert the json to an array of Restaurant objects
         if (response.statusCode() == 200) {
-            ObjectMapper objectMapper = new ObjectMapper();
             try {
-                return objectMapper.readValue(response.body(), Restaurant[].class);
+                return JsonMapping.restaurantsReader().readValue(response.body());
             }
             catch (Exception e) {
                 System.err.println("Unable to read ObjectMapper value for Restaurants. \nError code: " + e);
@@ -109,12 +271,13 @@ public class RestReader {
     public static NamedRegion getRequestedCentralArea(String url) {
         HttpRequest request = HttpRequest.newBuilder()
                 .uri(URI.create(url+"/centralArea"))
+                .timeout(timeout())
                 .build();
         HttpResponse<String> response = null;
 
         // HttpRequest is used to read from the REST API
         try {
-            response = HttpClient.newHttpClient().send(request, HttpResponse.BodyHandlers.ofString());
+            response = CLIENT.send(request, HttpResponse.BodyHandlers.ofString());
         } catch (Exception e) {
             System.err.println("Unable to obtain response from REST API for CentralArea. \nError code: " + e);
             System.exit(1);
@@ -122,11 +285,10 @@ public class RestReader {
 
         // the response code is checked to see if the request was successful
         // it is then converted to an array of LngLat objects
-        // ObjectMapper is used to convert the json to a NamedRegion object
+        // the shared ObjectReader is used to convert the json to a NamedRegion object
         if (response.statusCode() == 200) {
-            ObjectMapper objectMapper = new ObjectMapper();
             try {
-                return objectMapper.readValue(response.body(), NamedRegion.class);
+                return JsonMapping.namedRegionReader().readValue(response.body());
             }
             catch (Exception e) {
                 System.err.println("Unable to read ObjectMapper value for CentralArea. \nError code: " + e);
@@ -151,12 +313,13 @@ public class RestReader {
     public static NamedRegion[] getRequestedNoFlyZones(String url) {
         HttpRequest request = HttpRequest.newBuilder()
                 .uri(URI.create(url+"/noFlyZones"))
+                .timeout(timeout())
                 .build();
         HttpResponse<String> response = null;
 
         // HttpRequest is used to read from the REST API
         try {
-            response = HttpClient.newHttpClient().send(request, HttpResponse.BodyHandlers.ofString());
+            response = CLIENT.send(request, HttpResponse.BodyHandlers.ofString());
         } catch (Exception e) {
             System.err.println("Unable to obtain response from REST API for NoFlyZones. \nError code: " + e);
             System.exit(1);
@@ -164,11 +327,10 @@ public class RestReader {
 
         // the response code is checked to see if the request was successful
         // it is then converted to an array of LngLat objects
-        // ObjectMapper is used to convert the json to an array of NamedRegion objects
+        // the shared ObjectReader is used to convert the json to an array of NamedRegion objects
         if (response.statusCode() == 200) {
-            ObjectMapper objectMapper = new ObjectMapper();
             try {
-                return objectMapper.readValue(response.body(), NamedRegion[].class);
+                return JsonMapping.namedRegionsReader().readValue(response.body());
             }
             catch (Exception e) {
                 System.err.println("Unable to read ObjectMapper value for NoFlyZones. \nError code: " + e);
@@ -193,12 +355,13 @@ public class RestReader {
     public static Boolean getIsAlive(String url) {
         HttpRequest request = HttpRequest.newBuilder()
                 .uri(URI.create(url+"/isAlive"))
+                .timeout(timeout())
                 .build();
         HttpResponse<String> response = null;
 
         // HttpRequest is used to read from the REST API
         try {
-            response = HttpClient.newHttpClient().send(request, HttpResponse.BodyHandlers.ofString());
+            response = CLIENT.send(request, HttpResponse.BodyHandlers.ofString());
         } catch (Exception e) {
             System.err.println("Unable to obtain request from REST API. Your URL may not be correct, please try again\n" +
                     "Error code: " + e);
@@ -0,0 +1,205 @@
+package uk.ac.ed.inf;
+
+import uk.ac.ed.inf.ilp.constant.SystemConstants;
+import uk.ac.ed.inf.ilp.data.LngLat;
+import uk.ac.ed.inf.ilp.data.NamedRegion;
+
+/**
+ * Uniform grid index over the edges of a set of NamedRegions for segment crossing tests
+ * Each cell lists the edges whose bounding box overlaps it, so a drone move only
+ * checks the few edges near it rather than every edge of every region
+ */
+public class SegmentIndex {
+
+    // cells are two drone moves wide, so a single move touches at most a few cells
+    private static final double CELL_SIZE = SystemConstants.DRONE_MOVE_DISTANCE * 2;
+
+    // edge coordinates, edge i runs from (startLng[i], startLat[i]) to (endLng[i], endLat[i])
+    private final double[] startLng;
+    private final double[] startLat;
+    private final double[] endLng;
+    private final double[] endLat;
+
+    // grid origin and size, cells are CELL_SIZE wide unless the edges span too many of them
+    private final double originLng;
+    private final double originLat;
+    private final double cellSize;
+    private final int columns;
+    private final int rows;
+
+    // edges of cell c are cellEdges[cellStart[c]] to cellEdges[cellStart[c + 1] - 1]
+    private final int[] cellStart;
+    private final int[] cellEdges;
+
+    /**
+     * Builds the index over every edge of the given regions
+     * Cells are made larger if the regions would need more than RegionIndex.MAX_CELLS of them
+     * @param regions the NamedRegions as closed polygons
+     */
+    public SegmentIndex(NamedRegion[] regions) {
+        int edgeCount = 0;
+        for (NamedRegion region : regions) {
+            edgeCount += region.vertices().length;
+        }
+
+        startLng = new double[edgeCount];
+        startLat = new double[edgeCount];
+        endLng = new double[edgeCount];
+        endLat = new double[edgeCount];
+
+        double minLng = Double.POSITIVE_INFINITY;
+        double minLat = Double.POSITIVE_INFINITY;
+        double maxLng = Double.NEGATIVE_INFINITY;
+        double maxLat = Double.NEGATIVE_INFINITY;
+
+        int edge = 0;
+        for (NamedRegion region : regions) {
+            LngLat[] coords = region.vertices();
+            int n = coords.length;
+            for (int i = 0; i < n; i++) {
+                LngLat p1 = coords[i];
+                LngLat p2 = coords[(i + 1) % n];
+                startLng[edge] = p1.lng();
+                startLat[edge] = p1.lat();
+                endLng[edge] = p2.lng();
+                endLat[edge] = p2.lat();
+                edge++;
+
+                minLng = Math.min(minLng, p1.lng());
+                minLat = Math.min(minLat, p1.lat());
+                maxLng = Math.max(maxLng, p1.lng());
+                maxLat = Math.max(maxLat, p1.lat());
+            }
+        }
+
+        if (edgeCount == 0) {
+            originLng = 0;
+            originLat = 0;
+            cellSize = CELL_SIZE;
+            columns = 0;
+            rows = 0;
+            cellStart = new int[1];
+            cellEdges = new int[0];
+            return;
+        }
+
+        originLng = minLng;
+        originLat = minLat;
+        cellSize = RegionIndex.fitCellSize(CELL_SIZE, maxLng - minLng, maxLat - minLat);
+        columns = (int) ((maxLng - minLng) / cellSize) + 1;
+        rows = (int) ((maxLat - minLat) / cellSize) + 1;
+
+        // first pass counts the edges in each cell, second pass fills them in
+        int[] counts = new int[columns * rows + 1];
+        for (int i = 0; i < edgeCount; i++) {
+            int minColumn = column(Math.min(startLng[i], endLng[i]));
+            int maxColumn = column(Math.max(startLng[i], endLng[i]));
+            int minRow = row(Math.min(startLat[i], endLat[i]));
+            int maxRow = row(Math.max(startLat[i], endLat[i]));
+            for (int r = minRow; r <= maxRow; r++) {
+                for (int c = minColumn; c <= maxColumn; c++) {
+                    counts[r * columns + c]++;
+                }
+            }
+        }
+
+        cellStart = new int[columns * rows + 1];
+        for (int c = 0; c < columns * rows; c++) {
+            cellStart[c + 1] = cellStart[c] + counts[c];
+        }
+        cellEdges = new int[cellStart[columns * rows]];
+
+        int[] next = new int[columns * rows];
+        System.arraycopy(cellStart, 0, next, 0, next.length);
+        for (int i = 0; i < edgeCount; i++) {
+            int minColumn = column(Math.min(startLng[i], endLng[i]));
+            int maxColumn = column(Math.max(startLng[i], endLng[i]));
+            int minRow = row(Math.min(startLat[i], endLat[i]));
+            int maxRow = row(Math.max(startLat[i], endLat[i]));
+            for (int r = minRow; r <= maxRow; r++) {
+                for (int c = minColumn; c <= maxColumn; c++) {
+                    cellEdges[next[r * columns + c]++] = i;
+                }
+            }
+        }
+    }
+
+    /**
+     * check if the segment from one position to another crosses or touches any indexed edge
+     * @param fromLng the longitude the segment starts at
+     * @param fromLat the latitude the segment starts at
+     * @param toLng the longitude the segment ends at
+     * @param toLat the latitude the segment ends at
+     * @return if the segment crosses or touches an edge
+     */
+    public boolean crosses(double fromLng, double fromLat, double toLng, double toLat) {
+        double minLng = Math.min(fromLng, toLng);
+        double maxLng = Math.max(fromLng, toLng);
+        double minLat = Math.min(fromLat, toLat);
+        double maxLat = Math.max(fromLat, toLat);
+
+        // segments outside the grid cannot touch any edge
+        if (columns == 0 || maxLng < originLng || maxLat < originLat
+                || minLng > originLng + columns * cellSize || minLat > originLat + rows * cellSize) {
+            return false;
+        }
+
+        int minColumn = Math.max(0, column(minLng));
+        int maxColumn = Math.min(columns - 1, column(maxLng));
+        int minRow = Math.max(0, row(minLat));
+        int maxRow = Math.min(rows - 1, row(maxLat));
+
+        for (int r = minRow; r <= maxRow; r++) {
+            for (int c = minColumn; c <= maxColumn; c++) {
+                int cell = r * columns + c;
+                for (int i = cellStart[cell]; i < cellStart[cell + 1]; i++) {
+                    int edge = cellEdges[i];
+                    if (segmentsIntersect(fromLng, fromLat, toLng, toLat,
+                            startLng[edge], startLat[edge], endLng[edge], endLat[edge])) {
+                        return true;
+                    }
+                }
+            }
+        }
+        return false;
+    }
+
+    private int column(double lng) {
+        return (int) Math.floor((lng - originLng) / cellSize);
+    }
+
+    private int row(double lat) {
+        return (int) Math.floor((lat - originLat) / cellSize);
+    }
+
+    /**
+     * check if segment a-b and segment c-d intersect, including touching and collinear overlap
+     */
+    static boolean segmentsIntersect(double ax, double ay, double bx, double by,
+                                     double cx, double cy, double dx, double dy) {
+        double d1 = orientation(cx, cy, dx, dy, ax, ay);
+        double d2 = orientation(cx, cy, dx, dy, bx, by);
+        double d3 = orientation(ax, ay, bx, by, cx, cy);
+        double d4 = orientation(ax, ay, bx, by, dx, dy);
+
+        if (((d1 > 0 && d2 < 0) || (d1 < 0 && d2 > 0)) && ((d3 > 0 && d4 < 0) || (d3 < 0 && d4 > 0))) {
+            return true;
+        }
+
+        // an endpoint lying on the other segment
+        return (d1 == 0 && onSegment(cx, cy, dx, dy, ax, ay))
+                || (d2 == 0 && onSegment(cx, cy, dx, dy, bx, by))
+                || (d3 == 0 && onSegment(ax, ay, bx, by, cx, cy))
+                || (d4 == 0 && onSegment(ax, ay, bx, by, dx, dy));
+    }
+
+    // cross product of (q - p) and (r - p), positive if r is to the left of p-q
+    private static double orientation(double px, double py, double qx, double qy, double rx, double ry) {
+        return (qx - px) * (ry - py) - (qy - py) * (rx - px);
+    }
+
+    // r is known to be collinear with p-q, checks it lies between them
+    private static boolean onSegment(double px, double py, double qx, double qy, double rx, double ry) {
+        return rx >= Math.min(px, qx) && rx <= Math.max(px, qx) && ry >= Math.min(py, qy) && ry <= Math.max(py, qy);
+    }
+}
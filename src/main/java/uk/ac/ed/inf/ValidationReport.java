@@ -0,0 +1,93 @@
+package uk.ac.ed.inf;
+
+import uk.ac.ed.inf.ilp.constant.OrderValidationCode;
+import uk.ac.ed.inf.ilp.data.Order;
+import uk.ac.ed.inf.ilp.data.Restaurant;
+
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * The result of validating a day's orders in bulk
+ * Holds the validated orders, the OrderValidationCode given to each, the restaurant of each valid order
+ * and how many orders got each code
+ */
+public class ValidationReport {
+
+    private final Order[] orders;
+    private final OrderValidationCode[] codes;
+    private final Restaurant[] restaurants;
+    private final Map<OrderValidationCode, Integer> counts;
+
+    /**
+     * Creates the report, counting the codes
+     * @param orders the validated orders
+     * @param codes the OrderValidationCode of each order, in the same order
+     */
+    public ValidationReport(Order[] orders, OrderValidationCode[] codes) {
+        this(orders, codes, new Restaurant[orders.length]);
+    }
+
+    /**
+     * Creates the report, counting the codes
+     * @param orders the validated orders
+     * @param codes the OrderValidationCode of each order, in the same order
+     * @param restaurants the restaurant of each valid order, null for invalid orders, in the same order
+     */
+    public ValidationReport(Order[] orders, OrderValidationCode[] codes, Restaurant[] restaurants) {
+        this.orders = orders;
+        this.codes = codes;
+        this.restaurants = restaurants;
+
+        int[] perCode = new int[OrderValidationCode.values().length];
+        for (OrderValidationCode code : codes) {
+            perCode[code.ordinal()]++;
+        }
+        EnumMap<OrderValidationCode, Integer> codeCounts = new EnumMap<>(OrderValidationCode.class);
+        for (OrderValidationCode code : OrderValidationCode.values()) {
+            if (perCode[code.ordinal()] > 0) {
+                codeCounts.put(code, perCode[code.ordinal()]);
+            }
+        }
+        this.counts = Collections.unmodifiableMap(codeCounts);
+    }
+
+    /**
+     * @return the validated orders
+     */
+    public Order[] getOrders() {
+        return orders;
+    }
+
+    /**
+     * @param index the position of the order in the validated array
+     * @return the OrderValidationCode of that order
+     */
+    public OrderValidationCode getCode(int index) {
+        return codes[index];
+    }
+
+    /**
+     * @param index the position of the order in the validated array
+     * @return the restaurant the order is from if it passed validation, otherwise null
+     */
+    public Restaurant getRestaurant(int index) {
+        return restaurants[index];
+    }
+
+    /**
+     * @param code the OrderValidationCode to count
+     * @return the number of orders given that code
+     */
+    public int getCount(OrderValidationCode code) {
+        return counts.getOrDefault(code, 0);
+    }
+
+    /**
+     * @return the number of orders given each code, codes no order was given are left out
+     */
+    public Map<OrderValidationCode, Integer> getCounts() {
+        return counts;
+    }
+}
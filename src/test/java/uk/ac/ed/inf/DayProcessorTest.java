@@ -0,0 +1,119 @@
+package uk.ac.ed.inf;
+
+import org.json.JSONArray;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.junit.Assert.*;
+
+import uk.ac.ed.inf.ilp.constant.OrderStatus;
+import uk.ac.ed.inf.ilp.constant.OrderValidationCode;
+import uk.ac.ed.inf.ilp.data.LngLat;
+import uk.ac.ed.inf.ilp.data.Order;
+import uk.ac.ed.inf.ilp.data.Pizza;
+import uk.ac.ed.inf.ilp.data.Restaurant;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.DayOfWeek;
+import java.util.List;
+
+public class DayProcessorTest {
+
+    @TempDir
+    Path resultDir;
+
+    private static InputStream ordersJson() {
+        StringBuilder json = new StringBuilder("[");
+        for (int i = 0; i < 40; i++) {
+            // every fourth order has the wrong total
+            int total = i % 4 == 0 ? 1200 : 1100;
+            json.append(i == 0 ? "" : ",")
+                    .append("{\"orderNo\":\"ORDER").append(i).append("\",\"orderDate\":\"2023-11-15\",")
+                    .append("\"orderStatus\":\"UNDEFINED\",\"orderValidationCode\":\"UNDEFINED\",")
+                    .append("\"priceTotalInPence\":").append(total).append(",")
+                    .append("\"pizzasInOrder\":[{\"name\":\"Margherita\",\"priceInPence\":1000}],")
+                    .append("\"creditCardInformation\":{\"creditCardNumber\":\"0869849637299280\",")
+                    .append("\"creditCardExpiry\":\"12/99\",\"cvv\":\"074\"}}");
+        }
+        return new ByteArrayInputStream(json.append("]").toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void testStreamingAndBulkValidationAgree() throws IOException {
+        DayProcessor dayProcessor = new DayProcessor(new LngLat(-3.186874, 55.944494),
+                new Restaurant[] { OrderValidatorTest.createRestaurant() },
+                PathFindingTest.createNoFlyZones(), RegionIndexTest.createCentralArea());
+
+        DayProcessor.DayOrders streamed = dayProcessor.validate("2023-11-15", ordersJson(), true);
+        DayProcessor.DayOrders bulk = dayProcessor.validate("2023-11-15", ordersJson(), false);
+
+        assertEquals(40, streamed.getAllOrders().size());
+        assertEquals(30, streamed.getValidOrders().size());
+        assertEquals(40, bulk.getAllOrders().size());
+        for (int i = 0; i < 40; i++) {
+            Order order = streamed.getAllOrders().get(i);
+            assertEquals("ORDER" + i, order.getOrderNo());
+            assertEquals(i % 4 == 0 ? OrderValidationCode.TOTAL_INCORRECT : OrderValidationCode.NO_ERROR,
+                    order.getOrderValidationCode());
+            assertEquals(order.getOrderValidationCode(), bulk.getAllOrders().get(i).getOrderValidationCode());
+        }
+    }
+
+    private static String orderJson(String orderNo, String pizza) {
+        return "{\"orderNo\":\"" + orderNo + "\",\"orderDate\":\"2023-11-15\",\"orderStatus\":\"UNDEFINED\","
+                + "\"orderValidationCode\":\"UNDEFINED\",\"priceTotalInPence\":1100,"
+                + "\"pizzasInOrder\":[{\"name\":\"" + pizza + "\",\"priceInPence\":1000}],"
+                + "\"creditCardInformation\":{\"creditCardNumber\":\"0869849637299280\","
+                + "\"creditCardExpiry\":\"12/99\",\"cvv\":\"074\"}}";
+    }
+
+    @Test
+    public void testUnreachableRestaurantKeepsOrderNumbers() throws IOException {
+        DayOfWeek[] everyDay = DayOfWeek.values();
+        // the first restaurant is inside the George Square no-fly zone, so it can never be reached
+        Restaurant blocked = new Restaurant("Blocked", new LngLat(-3.1889, 55.9436), everyDay,
+                new Pizza[] { new Pizza("Calzone", 1000) });
+        Restaurant open = new Restaurant("Open", new LngLat(-3.1912869215011597, 55.945535152517735), everyDay,
+                new Pizza[] { new Pizza("Margarita", 1000) });
+        String orders = "[" + orderJson("BLOCKED1", "Calzone") + "," + orderJson("OPEN1", "Margarita") + "]";
+
+        try {
+            System.setProperty(OutputSink.RESULT_DIR_PROPERTY, resultDir.toString());
+            System.setProperty(PathCache.CACHE_DIR_PROPERTY, resultDir.resolve("cache").toString());
+            System.setProperty(FlightPathExport.EXPORT_PROPERTY, "true");
+            DayProcessor dayProcessor = new DayProcessor(new LngLat(-3.186874, 55.944494),
+                    new Restaurant[] { blocked, open }, PathFindingTest.createNoFlyZones(),
+                    RegionIndexTest.createCentralArea());
+
+            DayProcessor.DayOrders day = dayProcessor.validate("2023-11-15",
+                    new ByteArrayInputStream(orders.getBytes(StandardCharsets.UTF_8)), true);
+            dayProcessor.planPaths(List.of(day));
+            dayProcessor.deliver(day);
+
+            assertEquals(OrderStatus.VALID_BUT_NOT_DELIVERED, day.getAllOrders().get(0).getOrderStatus());
+            assertEquals(OrderStatus.DELIVERED, day.getAllOrders().get(1).getOrderStatus());
+
+            // every move is the delivered order's, none is labelled with the order that has no path
+            JSONArray moves = new JSONArray(Files.readString(resultDir.resolve("flightpath-2023-11-15.json")));
+            assertTrue(moves.length() > 0);
+            for (int i = 0; i < moves.length(); i++) {
+                assertEquals("OPEN1", moves.getJSONObject(i).getString("orderNo"));
+            }
+
+            FlightPathExport export = FlightPathExport.read(resultDir.resolve("flightpath-2023-11-15.bin"));
+            assertEquals(moves.length(), export.getMoveCount());
+            for (int i = 0; i < export.getMoveCount(); i++) {
+                assertEquals("OPEN1", export.getOrderNo(i));
+            }
+        } finally {
+            System.clearProperty(OutputSink.RESULT_DIR_PROPERTY);
+            System.clearProperty(PathCache.CACHE_DIR_PROPERTY);
+            System.clearProperty(FlightPathExport.EXPORT_PROPERTY);
+        }
+    }
+}
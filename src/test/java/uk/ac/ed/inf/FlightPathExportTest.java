@@ -0,0 +1,110 @@
+package uk.ac.ed.inf;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.junit.Assert.*;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import uk.ac.ed.inf.ilp.data.LngLat;
+import uk.ac.ed.inf.ilp.data.Order;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+public class FlightPathExportTest {
+
+    private static final LngLat APPLETON = new LngLat(-3.186874, 55.944494);
+
+    @TempDir
+    Path resultDir;
+
+    // a path of compass moves, as the path finder builds them
+    private static List<LngLat> pathTo(int... compassIndexes) {
+        LngLatHandler lngLatHandler = new LngLatHandler();
+        List<LngLat> path = new ArrayList<>();
+        path.add(APPLETON);
+        for (int compassIndex : compassIndexes) {
+            path.add(lngLatHandler.nextCompassPosition(path.get(path.size() - 1), compassIndex));
+        }
+        return path;
+    }
+
+    private static Order order(String orderNo) {
+        Order order = new Order();
+        order.setOrderNo(orderNo);
+        return order;
+    }
+
+    @Test
+    public void testRoundTrip() throws IOException {
+        List<List<LngLat>> paths = List.of(
+                PathCombiner.fullPath(pathTo(0, 0, 1, 2, 15)),
+                PathCombiner.fullPath(pathTo(8, 9, 9, 12)),
+                PathCombiner.fullPath(pathTo(0, 0, 1, 2, 15)));
+        List<Order> orders = List.of(order("ORDER1"), order("ORDER2"), order("ORDER1"));
+
+        Path file = resultDir.resolve("flightpath.bin");
+        FlightPathExport.write(file, paths, orders);
+        FlightPathExport export = FlightPathExport.read(file);
+
+        int move = 0;
+        for (int i = 0; i < paths.size(); i++) {
+            List<LngLat> path = paths.get(i);
+            for (int j = 0; j < path.size() - 1; j++, move++) {
+                assertEquals(orders.get(i).getOrderNo(), export.getOrderNo(move));
+                assertEquals(path.get(j).lng(), export.getFromLongitude(move), 1e-12);
+                assertEquals(path.get(j).lat(), export.getFromLatitude(move), 1e-12);
+                assertEquals(path.get(j + 1).lng(), export.getToLongitude(move), 1e-12);
+                assertEquals(path.get(j + 1).lat(), export.getToLatitude(move), 1e-12);
+            }
+        }
+        assertEquals(move, export.getMoveCount());
+
+        // out along the first leg, back the opposite way, then the hovers
+        assertEquals(0, export.getAngle(0), 0);
+        assertEquals(22.5, export.getAngle(2), 0);
+        assertEquals(337.5, export.getAngle(4), 0);
+        assertEquals(999, export.getAngle(5), 0);
+        assertEquals(FlightPathExport.HOVER, export.getDirection(5));
+        assertEquals(157.5, export.getAngle(6), 0);
+        assertEquals(180, export.getAngle(10), 0);
+        assertEquals(999, export.getAngle(11), 0);
+    }
+
+    @Test
+    public void testOrderNumbers() throws IOException {
+        // no order number, as JsonConverter leaves out, and one too long for a short length
+        String longOrderNo = "9".repeat(Short.MAX_VALUE + 1);
+        List<List<LngLat>> paths = List.of(pathTo(0), pathTo(4), pathTo(8));
+        List<Order> orders = List.of(order(null), order(longOrderNo), order("ORDER1"));
+
+        Path file = resultDir.resolve("flightpath.bin");
+        FlightPathExport.write(file, paths, orders);
+        FlightPathExport export = FlightPathExport.read(file);
+
+        assertEquals(3, export.getMoveCount());
+        assertNull(export.getOrderNo(0));
+        assertEquals(longOrderNo, export.getOrderNo(1));
+        assertEquals("ORDER1", export.getOrderNo(2));
+    }
+
+    @Test
+    public void testEmptyDay() throws IOException {
+        Path file = resultDir.resolve("flightpath.bin");
+        FlightPathExport.write(file, List.of(), List.of());
+
+        assertEquals(0, FlightPathExport.read(file).getMoveCount());
+    }
+
+    @Test
+    public void testNotAnExport() throws IOException {
+        Path file = resultDir.resolve("flightpath.bin");
+        Files.writeString(file, "[]");
+
+        assertThrows(IOException.class, () -> FlightPathExport.read(file));
+    }
+}
@@ -0,0 +1,104 @@
+package uk.ac.ed.inf;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.Assert.*;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import uk.ac.ed.inf.ilp.data.LngLat;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+public class FlightPathTest {
+
+    private static final LngLat APPLETON = new LngLat(-3.186874, 55.944494);
+
+    private static List<LngLat> pathTo(int moves) {
+        List<LngLat> path = new ArrayList<>();
+        for (int i = 0; i <= moves; i++) {
+            path.add(new LngLat(APPLETON.lng() + i * 0.00015, APPLETON.lat() - i * 0.0001));
+        }
+        return path;
+    }
+
+    @Test
+    public void testFullPathMatchesCopiedPath() {
+        List<LngLat> pathTo = pathTo(20);
+
+        // the path there, the path back, then a hover at Appleton
+        List<LngLat> expected = new ArrayList<>(pathTo);
+        List<LngLat> back = new ArrayList<>(pathTo);
+        Collections.reverse(back);
+        expected.addAll(back);
+        expected.add(APPLETON);
+
+        FlightPath fullPath = PathCombiner.fullPath(pathTo);
+        assertEquals(expected, fullPath);
+        for (int i = 0; i < expected.size(); i++) {
+            assertEquals(expected.get(i).lng(), fullPath.lng(i), 0);
+            assertEquals(expected.get(i).lat(), fullPath.lat(i), 0);
+        }
+    }
+
+    @Test
+    public void testReversedViews() {
+        FlightPath there = FlightPath.of(pathTo(5));
+        FlightPath both = there.concat(FlightPath.of(pathTo(2)));
+
+        assertEquals(there, there.reversed().reversed());
+        for (int i = 0; i < both.size(); i++) {
+            assertEquals(both.get(i), both.reversed().get(both.size() - 1 - i));
+        }
+        assertEquals(both.reversed().get(0), FlightPath.of(pathTo(2)).get(2));
+    }
+
+    @Test
+    public void testIndexOutOfBounds() {
+        FlightPath fullPath = PathCombiner.fullPath(pathTo(3));
+
+        assertEquals(9, fullPath.size());
+        assertThrows(IndexOutOfBoundsException.class, () -> fullPath.get(9));
+        assertThrows(IndexOutOfBoundsException.class, () -> fullPath.lng(-1));
+    }
+
+    @Test
+    public void testDirections() {
+        FlightPath fullPath = PathCombiner.fullPath(pathTo(20));
+
+        for (int i = 0; i < fullPath.size() - 1; i++) {
+            assertEquals(LngLatHandler.compassDirection(fullPath.lng(i + 1) - fullPath.lng(i),
+                    fullPath.lat(i + 1) - fullPath.lat(i)), fullPath.direction(i));
+        }
+        // the hovers at the restaurant and back at Appleton
+        assertEquals(LngLatHandler.HOVER_DIRECTION, fullPath.direction(20));
+        assertEquals(LngLatHandler.HOVER_DIRECTION, fullPath.direction(41));
+        assertEquals(LngLatHandler.reverseDirection(fullPath.direction(0)), fullPath.direction(40));
+        assertThrows(IndexOutOfBoundsException.class, () -> fullPath.direction(42));
+    }
+
+    @Test
+    public void testPlannedDirections() {
+        LngLat goal = new LngLat(-3.1838572025299072, 55.94449876875712);
+        List<LngLat> planned = PathFinding.findLatticePath(APPLETON, goal, PathFindingTest.createNoFlyZones());
+
+        // the planner hands back the directions its search took, each one giving the next position exactly
+        assertTrue(planned instanceof FlightPath);
+        FlightPath path = (FlightPath) planned;
+        LngLatHandler handler = new LngLatHandler();
+        for (int i = 0; i < path.size() - 1; i++) {
+            LngLat next = handler.nextPosition(path.get(i), LngLatHandler.directionAngle(path.direction(i)));
+            assertEquals(path.get(i + 1), next);
+            assertEquals(LngLatHandler.compassDirection(path.lng(i + 1) - path.lng(i), path.lat(i + 1) - path.lat(i)),
+                    path.direction(i));
+        }
+
+        // the full path shares the planned path and its directions rather than copying them
+        FlightPath fullPath = PathCombiner.fullPath(path);
+        int moves = path.size() - 1;
+        assertEquals(path.direction(0), fullPath.direction(0));
+        assertEquals(LngLatHandler.HOVER_DIRECTION, fullPath.direction(moves));
+        assertEquals(LngLatHandler.reverseDirection(path.direction(0)), fullPath.direction(2 * moves));
+    }
+}
@@ -0,0 +1,99 @@
+package uk.ac.ed.inf;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.junit.Assert.*;
+
+import uk.ac.ed.inf.ilp.data.LngLat;
+import uk.ac.ed.inf.ilp.data.NamedRegion;
+import uk.ac.ed.inf.ilp.data.Pizza;
+import uk.ac.ed.inf.ilp.data.Restaurant;
+
+import java.nio.file.Path;
+import java.time.DayOfWeek;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+public class FlightPlannerTest {
+
+    private static final LngLat APPLETON = new LngLat(-3.186874, 55.944494);
+
+    @TempDir
+    Path cacheDir;
+
+    private static Restaurant createRestaurant(String name, LngLat location) {
+        return new Restaurant(name, location, DayOfWeek.values(), new Pizza[] { new Pizza(name + " Special", 1000) });
+    }
+
+    private static List<Restaurant> createRestaurants() {
+        List<Restaurant> restaurants = new ArrayList<>();
+        restaurants.add(createRestaurant("Civerinos Slice", new LngLat(-3.1912869215011597, 55.945535152517735)));
+        restaurants.add(createRestaurant("Sora Lella", new LngLat(-3.202541470527649, 55.943284737579376)));
+        restaurants.add(createRestaurant("Domino's", new LngLat(-3.1838572025299072, 55.94449876875712)));
+        restaurants.add(createRestaurant("Civerinos Slice", new LngLat(-3.1912869215011597, 55.945535152517735)));
+        restaurants.add(createRestaurant("Sodeberg Pavillion", new LngLat(-3.1940174102783203, 55.94390696616939)));
+        return restaurants;
+    }
+
+    @Test
+    public void testParallelMatchesSequentialSearches() {
+        NamedRegion[] noFlyZones = PathFindingTest.createNoFlyZones();
+        PreparedNoFlyZones prepared = new PreparedNoFlyZones(noFlyZones);
+        FlightPlanner planner = new FlightPlanner(APPLETON, prepared, new PathCache(cacheDir, noFlyZones, null), 4);
+
+        Map<String, List<LngLat>> paths = planner.planPaths(createRestaurants());
+
+        assertEquals(List.of("Civerinos Slice", "Sora Lella", "Domino's", "Sodeberg Pavillion"), new ArrayList<>(paths.keySet()));
+        for (Restaurant restaurant : createRestaurants()) {
+            assertEquals(PathFinding.findLatticePath(APPLETON, restaurant.location(), prepared), paths.get(restaurant.name()));
+        }
+    }
+
+    @Test
+    public void testSingleThreadedPlannerUsesCache() {
+        NamedRegion[] noFlyZones = PathFindingTest.createNoFlyZones();
+        PreparedNoFlyZones prepared = new PreparedNoFlyZones(noFlyZones);
+        FlightPlanner planner = new FlightPlanner(APPLETON, prepared, new PathCache(cacheDir, noFlyZones, null), 1);
+
+        Map<String, List<LngLat>> first = planner.planPaths(createRestaurants());
+        PathCache reloaded = new PathCache(cacheDir, noFlyZones, null);
+        assertEquals(4, reloaded.size());
+
+        Map<String, List<LngLat>> second = new FlightPlanner(APPLETON, prepared, reloaded, 1).planPaths(createRestaurants());
+        assertEquals(first, second);
+    }
+
+    // the number of planning threads and the order goals are cached in must not change any path
+    @Test
+    public void testParallelismDoesNotChangePaths() {
+        NamedRegion[] noFlyZones = PathFindingTest.createNoFlyZones();
+        PreparedNoFlyZones prepared = new PreparedNoFlyZones(noFlyZones);
+        Map<String, List<LngLat>> paths = null;
+
+        for (String parallelism : List.of("1", "4")) {
+            String previous = System.setProperty(FlightPlanner.PARALLELISM_PROPERTY, parallelism);
+            try {
+                Path dir = cacheDir.resolve("threads-" + parallelism);
+                FlightPlanner planner = new FlightPlanner(APPLETON, prepared, new PathCache(dir, noFlyZones, null));
+                assertEquals(Integer.parseInt(parallelism), planner.getParallelism());
+
+                // one goal planned alone first, then the rest together with it already cached
+                planner.planPaths(createRestaurants().subList(0, 1));
+                Map<String, List<LngLat>> planned = planner.planPaths(createRestaurants());
+                if (paths != null) {
+                    assertEquals(paths, planned);
+                }
+                paths = planned;
+            } finally {
+                if (previous == null) {
+                    System.clearProperty(FlightPlanner.PARALLELISM_PROPERTY);
+                }
+                else {
+                    System.setProperty(FlightPlanner.PARALLELISM_PROPERTY, previous);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package uk.ac.ed.inf;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.junit.Assert.*;
+
+import uk.ac.ed.inf.ilp.data.LngLat;
+import uk.ac.ed.inf.ilp.data.Order;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+public class GeoJsonConverterTest {
+
+    @TempDir
+    Path resultDir;
+
+    private static final List<List<LngLat>> FLIGHT_PATHS = List.of(
+            List.of(new LngLat(-3.186874, 55.944494), new LngLat(-3.1864239999999997, 55.944494)),
+            List.of(new LngLat(-3.186874, 55.944494), new LngLat(-3.186874, 55.94464400000001)));
+
+    private static List<Order> orders() {
+        Order first = new Order();
+        first.setOrderNo("ORDER1");
+        Order second = new Order();
+        second.setOrderNo("ORDER2");
+        return List.of(first, second);
+    }
+
+    private String write(List<List<LngLat>> flightPaths, boolean perOrder, int precision) throws IOException {
+        Path file = resultDir.resolve("drone.geojson");
+        GeoJsonConverter.writeGeoJson(file, flightPaths, orders(), perOrder, precision);
+        return Files.readString(file, StandardCharsets.UTF_8);
+    }
+
+    @Test
+    public void testOneLineStringAtFullPrecision() throws IOException {
+        assertEquals("{\"type\":\"FeatureCollection\",\"features\":[{\"type\":\"Feature\",\"properties\":{},"
+                + "\"geometry\":{\"type\":\"LineString\",\"coordinates\":[[-3.186874,55.944494],"
+                + "[-3.1864239999999997,55.944494],[-3.186874,55.944494],[-3.186874,55.94464400000001]]}}]}",
+                write(FLIGHT_PATHS, false, GeoJsonConverter.FULL_PRECISION));
+    }
+
+    @Test
+    public void testFeaturePerOrder() throws IOException {
+        JsonNode features = JsonMapping.mapper().readTree(write(FLIGHT_PATHS, true, GeoJsonConverter.FULL_PRECISION))
+                .get("features");
+
+        assertEquals(2, features.size());
+        for (int i = 0; i < 2; i++) {
+            assertEquals("ORDER" + (i + 1), features.get(i).get("properties").get("orderNo").asText());
+            assertEquals(2, features.get(i).get("geometry").get("coordinates").size());
+        }
+    }
+
+    @Test
+    public void testPrecisionTrimmed() throws IOException {
+        String geoJson = write(FLIGHT_PATHS, true, 6);
+
+        assertTrue(geoJson.contains("[-3.186424,55.944494]"));
+        assertTrue(geoJson.contains("[-3.186874,55.944644]"));
+    }
+
+    @Test
+    public void testEmptyFlightPaths() throws IOException {
+        JsonNode geoJson = JsonMapping.mapper().readTree(write(List.of(), true, 6));
+
+        assertEquals("FeatureCollection", geoJson.get("type").asText());
+        assertEquals(0, geoJson.get("features").size());
+    }
+}
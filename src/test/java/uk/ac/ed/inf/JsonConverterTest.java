@@ -0,0 +1,147 @@
+package uk.ac.ed.inf;
+
+import org.json.JSONArray;
+import org.json.JSONObject;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.junit.Assert.*;
+
+import uk.ac.ed.inf.ilp.constant.OrderStatus;
+import uk.ac.ed.inf.ilp.constant.OrderValidationCode;
+import uk.ac.ed.inf.ilp.data.LngLat;
+import uk.ac.ed.inf.ilp.data.Order;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.text.DecimalFormat;
+import java.util.ArrayList;
+import java.util.List;
+
+public class JsonConverterTest {
+
+    private static final String DATE = "2023-11-15";
+    private static final LngLat APPLETON = new LngLat(-3.186874, 55.944494);
+
+    @TempDir
+    Path resultDir;
+
+    @BeforeEach
+    public void setResultDir() {
+        System.setProperty(OutputSink.RESULT_DIR_PROPERTY, resultDir.toString());
+    }
+
+    @AfterEach
+    public void clearResultDir() {
+        System.clearProperty(OutputSink.RESULT_DIR_PROPERTY);
+    }
+
+    private static Order order(String orderNo, OrderStatus status, OrderValidationCode code, int total) {
+        Order order = new Order();
+        order.setOrderNo(orderNo);
+        order.setOrderStatus(status);
+        order.setOrderValidationCode(code);
+        order.setPriceTotalInPence(total);
+        return order;
+    }
+
+    // a delivered order, one with characters org.json escapes, and one with every nullable field left unset
+    private static List<Order> orders() {
+        return List.of(
+                order("1818E811", OrderStatus.DELIVERED, OrderValidationCode.NO_ERROR, 1100),
+                order("</3D\"9C\\1724", OrderStatus.INVALID, OrderValidationCode.TOTAL_INCORRECT, 2400),
+                order(null, null, null, 0));
+    }
+
+    // a planned round trip with its hovers, and a copied path starting on whole degrees with a hover part way
+    private static List<List<LngLat>> paths() {
+        LngLatHandler handler = new LngLatHandler();
+        LngLat goal = new LngLat(-3.1838572025299072, 55.94449876875712);
+        FlightPath planned = PathCombiner.fullPath(
+                PathFinding.findLatticePath(APPLETON, goal, PathFindingTest.createNoFlyZones()));
+
+        List<LngLat> copied = new ArrayList<>();
+        copied.add(new LngLat(-3.0, 56.0));
+        copied.add(handler.nextPosition(copied.get(0), 0));
+        copied.add(copied.get(1));
+        copied.add(handler.nextPosition(copied.get(2), 135));
+        copied.add(handler.nextPosition(copied.get(3), 270));
+
+        return List.of(planned, copied, planned);
+    }
+
+    // the org.json writers JsonConverter replaced, kept here to check the files are unchanged
+    private static String legacyDeliveries(List<Order> orders) {
+        JSONArray deliveryArray = new JSONArray();
+        for (Order order : orders) {
+            JSONObject delivery = new JSONObject();
+            delivery.put("orderNo", order.getOrderNo());
+            delivery.put("orderStatus", order.getOrderStatus());
+            delivery.put("orderValidationCode", order.getOrderValidationCode());
+            delivery.put("costInPence", order.getPriceTotalInPence());
+            deliveryArray.put(delivery);
+        }
+        return deliveryArray.toString();
+    }
+
+    private static String legacyFlightPath(List<List<LngLat>> path, List<Order> order) {
+        JSONArray flightPathArray = new JSONArray();
+        for (int i = 0; i < path.size(); i++) {
+            for (int j = 0; j < path.get(i).size() - 1; j++) {
+                JSONObject flightPath = new JSONObject();
+                flightPath.put("orderNo", order.get(i).getOrderNo());
+                flightPath.put("fromLongitude", path.get(i).get(j).lng());
+                flightPath.put("fromLatitude", path.get(i).get(j).lat());
+                flightPath.put("angle", legacyAngle(path.get(i).get(j), path.get(i).get(j + 1)));
+                flightPath.put("toLongitude", path.get(i).get(j + 1).lng());
+                flightPath.put("toLatitude", path.get(i).get(j + 1).lat());
+                flightPathArray.put(flightPath);
+            }
+        }
+        return flightPathArray.toString();
+    }
+
+    private static double legacyAngle(LngLat from, LngLat to) {
+        if (from.equals(to)) {
+            return 999.0;
+        }
+        double angle = Math.toDegrees(Math.atan2(to.lat() - from.lat(), to.lng() - from.lng()));
+        if (angle < 0) {
+            angle += 360;
+        }
+        return Double.parseDouble(new DecimalFormat("0.00").format(angle));
+    }
+
+    @Test
+    public void testDeliveriesMatchOrgJson() throws IOException {
+        JsonConverter.writeDeliveriesToFile(orders(), DATE);
+
+        String written = Files.readString(resultDir.resolve("deliveries-" + DATE + ".json"));
+        assertEquals(legacyDeliveries(orders()), written);
+        assertTrue(written.endsWith("{\"costInPence\":0}]"));
+    }
+
+    @Test
+    public void testFlightPathMatchesOrgJson() throws IOException {
+        List<List<LngLat>> paths = paths();
+        JsonConverter.writeFlightPathToFile(paths, orders(), DATE);
+
+        String written = Files.readString(resultDir.resolve("flightpath-" + DATE + ".json"));
+        assertEquals(legacyFlightPath(paths, orders()), written);
+        assertTrue(written.contains("\"fromLongitude\":-3,\"fromLatitude\":56,\"angle\":0,"));
+        assertTrue(written.contains("\"angle\":999,"));
+        assertTrue(written.contains("\"angle\":135,"));
+    }
+
+    @Test
+    public void testNoFlightPaths() throws IOException {
+        JsonConverter.writeFlightPathToFile(List.of(), List.of(), DATE);
+        JsonConverter.writeDeliveriesToFile(List.of(), DATE);
+
+        assertEquals("[]", Files.readString(resultDir.resolve("flightpath-" + DATE + ".json")));
+        assertEquals("[]", Files.readString(resultDir.resolve("deliveries-" + DATE + ".json")));
+    }
+}
@@ -9,6 +9,7 @@ import uk.ac.ed.inf.ilp.constant.SystemConstants;
 import uk.ac.ed.inf.ilp.data.LngLat;
 import uk.ac.ed.inf.ilp.data.NamedRegion;
 
+import java.text.DecimalFormat;
 import java.util.Random;  
 
 //LngLat(-3.186874, 55.944494); appleton tower
@@ -141,5 +142,49 @@ public class LngLatHandlerTest {
         assertTrue(startPosition.equals(endPosition));
     }
 
-}
+    @RepeatedTest(100)
+    public void testCompassPositionMatchesNextPosition() {
+        LngLatHandler handler = new LngLatHandler();
+
+        double lng = new Random().nextDouble() * 360 - 180;
+        double lat = new Random().nextDouble() * 180 - 90;
+        LngLat startPosition = new LngLat(lng, lat);
+
+        double[] neighbours = new double[2 * LngLatHandler.COMPASS_DIRECTIONS];
+        LngLatHandler.fillNeighbours(lng, lat, neighbours);
+
+        for (int i = 0; i < LngLatHandler.COMPASS_DIRECTIONS; i++) {
+            LngLat expectedPosition = handler.nextPosition(startPosition, i * 22.5);
+            assertEquals(expectedPosition, handler.nextCompassPosition(startPosition, i));
+            assertEquals(expectedPosition, new LngLat(neighbours[2 * i], neighbours[2 * i + 1]));
+        }
+    }
+
 
+    // the recorded direction of a move gives the same angle the flightpath writer used to calculate and round
+    @RepeatedTest(100)
+    public void testCompassDirection() {
+        LngLatHandler handler = new LngLatHandler();
+        Random random = new Random();
+        LngLat start = new LngLat(-3.19 + random.nextDouble() * 0.01, 55.94 + random.nextDouble() * 0.01);
+        DecimalFormat df = new DecimalFormat("0.00");
+
+        for (int i = 0; i < LngLatHandler.COMPASS_DIRECTIONS; i++) {
+            LngLat next = handler.nextCompassPosition(start, i);
+            int direction = LngLatHandler.compassDirection(next.lng() - start.lng(), next.lat() - start.lat());
+            int back = LngLatHandler.compassDirection(start.lng() - next.lng(), start.lat() - next.lat());
+            assertEquals(i, direction);
+            assertEquals(LngLatHandler.reverseDirection(i), back);
+
+            double angle = Math.toDegrees(Math.atan2(next.lat() - start.lat(), next.lng() - start.lng()));
+            double backAngle = Math.toDegrees(Math.atan2(start.lat() - next.lat(), start.lng() - next.lng()));
+            assertEquals(Double.parseDouble(df.format(angle < 0 ? angle + 360 : angle)),
+                    LngLatHandler.directionAngle(direction), 0);
+            assertEquals(Double.parseDouble(df.format(backAngle < 0 ? backAngle + 360 : backAngle)),
+                    LngLatHandler.directionAngle(back), 0);
+        }
+
+        assertEquals(LngLatHandler.HOVER_DIRECTION, LngLatHandler.compassDirection(0, 0));
+        assertEquals(LngLatHandler.HOVER_ANGLE, LngLatHandler.directionAngle(LngLatHandler.HOVER_DIRECTION), 0);
+    }
+}
@@ -0,0 +1,57 @@
+package uk.ac.ed.inf;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.Assert.*;
+
+import uk.ac.ed.inf.ilp.data.LngLat;
+import uk.ac.ed.inf.ilp.data.Pizza;
+import uk.ac.ed.inf.ilp.data.Restaurant;
+
+import java.time.DayOfWeek;
+
+public class MenuCatalogueTest {
+
+    private static Restaurant createSecondRestaurant() {
+        return new Restaurant("Second Testaurant",
+                new LngLat(-3.1912869215011597, 55.945535152517735),
+                new DayOfWeek[] { DayOfWeek.MONDAY },
+                new Pizza[] { new Pizza("Margherita", 1200), new Pizza("Calzone", 1400) });
+    }
+
+    @Test
+    public void testLookupsByPizzaName() {
+        Restaurant restaurant = OrderValidatorTest.createRestaurant();
+        MenuCatalogue catalogue = new MenuCatalogue(new Restaurant[] { restaurant, createSecondRestaurant() });
+
+        assertTrue(catalogue.isDefined(new Pizza("Pepperoni", 1)));
+        assertFalse(catalogue.isDefined(new Pizza("Vegan Delight", 1100)));
+        assertEquals(restaurant, catalogue.getRestaurant("Hawaiian"));
+        assertEquals(1400, catalogue.getPriceInPence("Calzone"));
+        assertEquals(-1, catalogue.getPriceInPence("Vegan Delight"));
+    }
+
+    @Test
+    public void testFindRestaurantMatchesMenuScan() {
+        Restaurant first = OrderValidatorTest.createRestaurant();
+        Restaurant second = createSecondRestaurant();
+        Restaurant[] restaurants = new Restaurant[] { first, second };
+        MenuCatalogue catalogue = new MenuCatalogue(restaurants);
+        OrderValidator validator = new OrderValidator();
+
+        Pizza[][] orders = new Pizza[][] {
+            { new Pizza("Margherita", 1000), new Pizza("Pepperoni", 1100) },
+            { new Pizza("Margherita", 1200), new Pizza("Calzone", 1400) },
+            { new Pizza("Margherita", 1000), new Pizza("Calzone", 1400) },
+            { new Pizza("Margherita", 1300) },
+            { new Pizza("Calzone", 1400), new Pizza("Calzone", 1400) },
+            { }
+        };
+        Restaurant[] expected = new Restaurant[] { first, second, null, null, second, first };
+
+        for (int i = 0; i < orders.length; i++) {
+            assertEquals(expected[i], catalogue.findRestaurant(orders[i]));
+            assertEquals(expected[i], validator.oneRestaurant(orders[i], restaurants));
+        }
+    }
+}
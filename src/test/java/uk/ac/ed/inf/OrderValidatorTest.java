@@ -12,8 +12,11 @@ import java.util.Random;
 import static org.junit.Assert.*;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 
+import java.time.Clock;
 import java.time.DayOfWeek;
+import java.time.Instant;
 import java.time.LocalDate;
+import java.time.ZoneOffset;
 import java.time.format.DateTimeFormatter;
 
 public class OrderValidatorTest {
@@ -729,4 +732,59 @@ public class OrderValidatorTest {
 
     }
 
+    @RepeatedTest(5)
+    public void testValidateAll() {
+        OrderValidator validator = new OrderValidator();
+        Restaurant restaurant = createRestaurant();
+
+        Order[] orders = new Order[3000];
+        for (int i = 0; i < orders.length; i++) {
+            String cardNumber = i % 3 == 1 ? createInvalidCardNumber() : createValidCardNumber();
+            String cardCVV = i % 3 == 2 ? createInvalidCvvChar() : createValidCVV();
+            orders[i] = createOrder(cardNumber, createValidExpiryDateNow(), cardCVV, restaurant);
+        }
+
+        ValidationReport report = validator.validateAll(orders, new Restaurant[] { restaurant });
+
+        assertEquals(1000, report.getCount(OrderValidationCode.NO_ERROR));
+        assertEquals(1000, report.getCount(OrderValidationCode.CARD_NUMBER_INVALID));
+        assertEquals(1000, report.getCount(OrderValidationCode.CVV_INVALID));
+        assertEquals(0, report.getCount(OrderValidationCode.TOTAL_INCORRECT));
+        for (int i = 0; i < orders.length; i++) {
+            assertEquals(orders[i].getOrderValidationCode(), report.getCode(i));
+            assertEquals(i % 3 == 0 ? OrderStatus.VALID_BUT_NOT_DELIVERED : OrderStatus.INVALID, orders[i].getOrderStatus());
+            assertEquals(i % 3 == 0 ? restaurant : null, report.getRestaurant(i));
+        }
+    }
+
+    @RepeatedTest(1)
+    public void testExpiryAgainstReferenceDate() {
+        OrderValidator validator = new OrderValidator(
+                Clock.fixed(Instant.parse("2025-06-15T12:00:00Z"), ZoneOffset.UTC));
+        Restaurant restaurant = createRestaurant();
+
+        String[] valid = { "06/25", "07/25", "01/26", "12/99" };
+        String[] invalid = { "05/25", "12/24", "0625", "6/25", "13/25", "00/26", "06/2025", "06-25", "" };
+
+        for (String expiry : valid) {
+            assertTrue(expiry, validator.checkExpiryDate(createOrder(createValidCardNumber(), expiry, createValidCVV(), restaurant)));
+        }
+        for (String expiry : invalid) {
+            assertFalse(validator.checkExpiryDate(createOrder(createValidCardNumber(), expiry, createValidCVV(), restaurant)), expiry);
+        }
+    }
+
+    @RepeatedTest(1)
+    public void testCardAndCvvCharacters() {
+        OrderValidator validator = new OrderValidator(LocalDate.of(2025, 6, 15));
+        Restaurant restaurant = createRestaurant();
+
+        assertTrue(validator.checkCardNumber(createOrder("0123456789012345", "06/25", "000", restaurant)));
+        assertFalse(validator.checkCardNumber(createOrder("012345678901234 ", "06/25", "000", restaurant)));
+        assertFalse(validator.checkCardNumber(createOrder("\u0661123456789012345", "06/25", "000", restaurant)));
+        assertTrue(validator.checkCVV(createOrder("0123456789012345", "06/25", "909", restaurant)));
+        assertFalse(validator.checkCVV(createOrder("0123456789012345", "06/25", "9/9", restaurant)));
+        assertFalse(validator.checkCVV(createOrder("0123456789012345", "06/25", "90", restaurant)));
+    }
+
 }
@@ -0,0 +1,82 @@
+package uk.ac.ed.inf;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.junit.Assert.*;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.zip.GZIPInputStream;
+
+public class OutputSinkTest {
+
+    @TempDir
+    Path resultDir;
+
+    // several buffers' worth of repetitive json-like text
+    private static byte[] content() {
+        StringBuilder content = new StringBuilder();
+        for (int i = 0; i < 20000; i++) {
+            content.append("{\"orderNo\":\"ORDER").append(i).append("\",\"angle\":").append(i % 16 * 22.5).append("},");
+        }
+        return content.toString().getBytes();
+    }
+
+    @Test
+    public void testGzipRoundTrip() throws IOException {
+        byte[] content = content();
+        Path file = resultDir.resolve("flightpath.json");
+
+        try (OutputStream out = OutputSink.GZIP.open(file)) {
+            out.write('[');
+            out.write(content, 0, content.length);
+            out.write(']');
+        }
+
+        Path compressed = resultDir.resolve("flightpath.json.gz");
+        assertEquals(compressed, OutputSink.GZIP.resolve(file));
+        assertFalse(Files.exists(file));
+        assertTrue(Files.size(compressed) * 10 < content.length);
+
+        try (InputStream in = new GZIPInputStream(Files.newInputStream(compressed))) {
+            byte[] read = in.readAllBytes();
+            assertEquals(content.length + 2, read.length);
+            assertEquals('[', read[0]);
+            assertEquals(']', read[read.length - 1]);
+            for (int i = 0; i < content.length; i++) {
+                assertEquals(content[i], read[i + 1]);
+            }
+        }
+    }
+
+    @Test
+    public void testPlain() throws IOException {
+        Path file = resultDir.resolve("deliveries.json");
+
+        try (OutputStream out = OutputSink.PLAIN.open(file)) {
+            out.write(content());
+        }
+
+        assertEquals(file, OutputSink.PLAIN.resolve(file));
+        assertFalse(OutputSink.PLAIN.isCompressed());
+        assertArrayEquals(content(), Files.readAllBytes(file));
+    }
+
+    @Test
+    public void testConfigured() {
+        assertEquals(OutputSink.PLAIN, OutputSink.configured());
+        try {
+            System.setProperty(OutputSink.COMPRESSION_PROPERTY, "gzip");
+            assertEquals(OutputSink.GZIP, OutputSink.configured());
+            System.setProperty(OutputSink.COMPRESSION_PROPERTY, "rar");
+            assertThrows(IllegalArgumentException.class, OutputSink::configured);
+        } finally {
+            System.clearProperty(OutputSink.COMPRESSION_PROPERTY);
+        }
+    }
+}
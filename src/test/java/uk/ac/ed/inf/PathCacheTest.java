@@ -0,0 +1,137 @@
+package uk.ac.ed.inf;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.junit.Assert.*;
+
+import uk.ac.ed.inf.ilp.data.LngLat;
+import uk.ac.ed.inf.ilp.data.NamedRegion;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Stream;
+
+public class PathCacheTest {
+
+    private static final LngLat APPLETON = new LngLat(-3.186874, 55.944494);
+    private static final LngLat GOAL = new LngLat(-3.1838572025299072, 55.94449876875712);
+
+    @TempDir
+    Path cacheDir;
+
+    @Test
+    public void testPathSurvivesReload() {
+        NamedRegion[] noFlyZones = PathFindingTest.createNoFlyZones();
+        NamedRegion centralArea = RegionIndexTest.createCentralArea();
+        List<LngLat> path = PathFinding.findLatticePath(APPLETON, GOAL, noFlyZones);
+
+        PathCache cache = new PathCache(cacheDir, noFlyZones, centralArea);
+        assertNull(cache.get(APPLETON, GOAL));
+        cache.put(APPLETON, GOAL, path);
+        cache.save();
+        assertTrue(Files.exists(cacheDir.resolve("flightpaths.cache")));
+
+        PathCache reloaded = new PathCache(cacheDir, noFlyZones, centralArea);
+        assertEquals(1, reloaded.size());
+        assertEquals(path, reloaded.get(APPLETON, GOAL));
+        assertNull(reloaded.get(GOAL, APPLETON));
+
+        // the directions the search took are kept with the path
+        FlightPath found = (FlightPath) path;
+        FlightPath cached = (FlightPath) reloaded.get(APPLETON, GOAL);
+        for (int i = 0; i < found.size() - 1; i++) {
+            assertEquals(found.direction(i), cached.direction(i));
+        }
+    }
+
+    @Test
+    public void testChangedGeometryInvalidatesCache() {
+        NamedRegion[] noFlyZones = PathFindingTest.createNoFlyZones();
+        NamedRegion centralArea = RegionIndexTest.createCentralArea();
+        List<LngLat> path = PathFinding.findLatticePath(APPLETON, GOAL, noFlyZones);
+
+        PathCache cache = new PathCache(cacheDir, noFlyZones, centralArea);
+        cache.put(APPLETON, GOAL, path);
+        cache.save();
+
+        NamedRegion[] fewerZones = { noFlyZones[0] };
+        assertNull(new PathCache(cacheDir, fewerZones, centralArea).get(APPLETON, GOAL));
+        assertNull(new PathCache(cacheDir, noFlyZones, null).get(APPLETON, GOAL));
+        assertNotEquals(PathCache.geometryFingerprint(noFlyZones, centralArea),
+                PathCache.geometryFingerprint(fewerZones, centralArea));
+    }
+
+    @Test
+    public void testNullPathNotCached() {
+        PathCache cache = new PathCache(cacheDir, PathFindingTest.createNoFlyZones(), null);
+        cache.put(APPLETON, GOAL, null);
+        assertEquals(0, cache.size());
+    }
+
+    // saves one path and returns the bytes of the cache file
+    private byte[] savedCache(NamedRegion[] noFlyZones, NamedRegion centralArea) throws IOException {
+        PathCache cache = new PathCache(cacheDir, noFlyZones, centralArea);
+        cache.put(APPLETON, GOAL, PathFinding.findLatticePath(APPLETON, GOAL, noFlyZones));
+        cache.save();
+        return Files.readAllBytes(cacheDir.resolve("flightpaths.cache"));
+    }
+
+    @Test
+    public void testCorruptLengthIsCacheMiss() throws IOException {
+        NamedRegion[] noFlyZones = PathFindingTest.createNoFlyZones();
+        NamedRegion centralArea = RegionIndexTest.createCentralArea();
+        byte[] bytes = savedCache(noFlyZones, centralArea);
+
+        // the path length follows the 20 byte header, the path count and the start and goal
+        for (int length : new int[] { Integer.MAX_VALUE, -1, 1 << 20 }) {
+            ByteBuffer.wrap(bytes).putInt(20 + 32, length);
+            Files.write(cacheDir.resolve("flightpaths.cache"), bytes);
+            assertEquals(0, new PathCache(cacheDir, noFlyZones, centralArea).size());
+        }
+
+        // a garbage path count
+        ByteBuffer.wrap(bytes).putInt(16, Integer.MAX_VALUE);
+        Files.write(cacheDir.resolve("flightpaths.cache"), bytes);
+        assertEquals(0, new PathCache(cacheDir, noFlyZones, centralArea).size());
+    }
+
+    @Test
+    public void testTruncatedCacheIsCacheMiss() throws IOException {
+        NamedRegion[] noFlyZones = PathFindingTest.createNoFlyZones();
+        NamedRegion centralArea = RegionIndexTest.createCentralArea();
+        byte[] bytes = savedCache(noFlyZones, centralArea);
+
+        Files.write(cacheDir.resolve("flightpaths.cache"), Arrays.copyOf(bytes, bytes.length - 5));
+        assertEquals(0, new PathCache(cacheDir, noFlyZones, centralArea).size());
+        assertNull(new PathCache(cacheDir, noFlyZones, centralArea).get(APPLETON, GOAL));
+    }
+
+    @Test
+    public void testSaveLeavesNoTemporaryFile() throws IOException {
+        savedCache(PathFindingTest.createNoFlyZones(), null);
+
+        try (Stream<Path> files = Files.list(cacheDir)) {
+            assertEquals(List.of(cacheDir.resolve("flightpaths.cache")), files.toList());
+        }
+    }
+
+    @Test
+    public void testFailedSaveLeavesNoTemporaryFile() throws IOException {
+        // a non-empty directory where the cache file should be makes the move fail
+        Path cacheFile = Files.createDirectories(cacheDir.resolve("flightpaths.cache"));
+        Files.createFile(cacheFile.resolve("blocker"));
+        NamedRegion[] noFlyZones = PathFindingTest.createNoFlyZones();
+        PathCache cache = new PathCache(cacheDir, noFlyZones, null);
+        cache.put(APPLETON, GOAL, PathFinding.findLatticePath(APPLETON, GOAL, noFlyZones));
+        cache.save();
+
+        try (Stream<Path> files = Files.list(cacheDir)) {
+            assertEquals(List.of(cacheFile), files.toList());
+        }
+    }
+}
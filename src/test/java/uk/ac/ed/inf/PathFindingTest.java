@@ -0,0 +1,115 @@
+package uk.ac.ed.inf;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.Assert.*;
+
+import uk.ac.ed.inf.ilp.constant.SystemConstants;
+import uk.ac.ed.inf.ilp.data.LngLat;
+import uk.ac.ed.inf.ilp.data.NamedRegion;
+
+import java.util.List;
+
+//LngLat(-3.186874, 55.944494); appleton tower
+
+public class PathFindingTest {
+
+    private static final LngLat APPLETON = new LngLat(-3.186874, 55.944494);
+
+    public static NamedRegion[] createNoFlyZones() {
+        return new NamedRegion[] {
+            new NamedRegion("George Square Area", new LngLat[] {
+                new LngLat(-3.190578818321228, 55.94402412577528),
+                new LngLat(-3.1899887323379517, 55.94284650540911),
+                new LngLat(-3.187097311019897, 55.94328811724263),
+                new LngLat(-3.187682032585144, 55.944477740393744),
+                new LngLat(-3.190578818321228, 55.94402412577528)
+            }),
+            new NamedRegion("Bayes Central Area", new LngLat[] {
+                new LngLat(-3.1876927614212036, 55.94520696732767),
+                new LngLat(-3.187555968761444, 55.9449621408666),
+                new LngLat(-3.186981976032257, 55.94505676722831),
+                new LngLat(-3.1872327625751495, 55.94536993377657),
+                new LngLat(-3.1876927614212036, 55.94520696732767)
+            })
+        };
+    }
+
+    private static void assertValidPath(List<LngLat> path, LngLat start, LngLat goal, NamedRegion[] noFlyZones) {
+        LngLatHandler handler = new LngLatHandler();
+        assertNotNull(path);
+        assertEquals(start, path.get(0));
+        assertTrue(handler.isCloseTo(path.get(path.size() - 1), goal));
+
+        for (int i = 0; i < path.size() - 1; i++) {
+            assertEquals(SystemConstants.DRONE_MOVE_DISTANCE, handler.distanceTo(path.get(i), path.get(i + 1)), 1e-12);
+        }
+        for (LngLat position : path) {
+            for (NamedRegion zone : noFlyZones) {
+                assertFalse(handler.isInRegion(position, zone));
+            }
+        }
+        SegmentIndex edges = new SegmentIndex(noFlyZones);
+        for (int i = 0; i < path.size() - 1; i++) {
+            assertFalse(edges.crosses(path.get(i).lng(), path.get(i).lat(), path.get(i + 1).lng(), path.get(i + 1).lat()));
+        }
+    }
+
+    @Test
+    public void testLatticePathAroundNoFlyZones() {
+        NamedRegion[] noFlyZones = createNoFlyZones();
+        LngLat goal = new LngLat(-3.1912869215011597, 55.945535152517735);
+
+        List<LngLat> path = PathFinding.findLatticePath(APPLETON, goal, noFlyZones);
+        assertValidPath(path, APPLETON, goal, noFlyZones);
+    }
+
+    @Test
+    public void testLatticePathNoLongerThanPlainPath() {
+        NamedRegion[] noFlyZones = createNoFlyZones();
+        LngLat goal = new LngLat(-3.1838572025299072, 55.94449876875712);
+
+        List<LngLat> plain = PathFinding.findPath(APPLETON, goal, noFlyZones);
+        List<LngLat> lattice = PathFinding.findLatticePath(APPLETON, goal, noFlyZones);
+        assertValidPath(plain, APPLETON, goal, noFlyZones);
+        assertValidPath(lattice, APPLETON, goal, noFlyZones);
+        assertTrue(lattice.size() <= plain.size() + 1);
+    }
+
+    @Test
+    public void testGoalInNoFlyZone() {
+        NamedRegion[] noFlyZones = createNoFlyZones();
+        LngLat goal = new LngLat(-3.189, 55.9437);
+
+        assertNull(PathFinding.findLatticePath(APPLETON, goal, noFlyZones));
+    }
+
+    @Test
+    public void testLatticeKeySnapsNearbyPositions() {
+        LngLat position = new LngLat(-3.186874, 55.944494);
+        LngLat nudged = new LngLat(-3.186874 + 1e-12, 55.944494 - 1e-12);
+
+        assertEquals(PathFinding.latticeKey(position), PathFinding.latticeKey(nudged));
+        assertNotEquals(PathFinding.latticeKey(position),
+                PathFinding.latticeKey(new LngLat(position.lng() + SystemConstants.DRONE_MOVE_DISTANCE, position.lat())));
+    }
+
+    @Test
+    public void testEngineReusedBetweenSearches() {
+        NamedRegion[] noFlyZones = createNoFlyZones();
+        // far enough that the first search has to grow the engine's storage
+        LngLat goal = new LngLat(-3.202541470527649, 55.943284737579376);
+        AStarEngine engine = new AStarEngine();
+
+        List<LngLat> first = engine.findPath(APPLETON, goal, noFlyZones);
+        assertTrue(engine.getAllocationCount() > 0);
+        engine.resetCounters();
+        List<LngLat> second = engine.findPath(APPLETON, goal, noFlyZones);
+
+        assertEquals(first, second);
+        assertTrue(engine.getExpansionCount() > 0);
+        // the storage grown by the first search is reused, so the warm search allocates nothing
+        assertEquals(0, engine.getAllocationCount());
+        assertEquals(0.0, engine.getAllocationsPerExpansion(), 0.0);
+    }
+}
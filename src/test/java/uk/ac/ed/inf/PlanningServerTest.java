@@ -0,0 +1,139 @@
+package uk.ac.ed.inf;
+
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.junit.Assert.*;
+
+import uk.ac.ed.inf.ilp.data.LngLat;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+public class PlanningServerTest {
+
+    private static final String DATE = "2023-11-15";
+
+    @TempDir
+    Path resultDir;
+
+    @TempDir
+    Path cacheDir;
+
+    private final HttpClient client = HttpClient.newHttpClient();
+    private HttpServer restApi;
+    private PlanningServer planningServer;
+    private String planningUrl;
+
+    private static String orderJson(String orderNo, int total) {
+        return "{\"orderNo\":\"" + orderNo + "\",\"orderDate\":\"" + DATE + "\",\"orderStatus\":\"UNDEFINED\","
+                + "\"orderValidationCode\":\"UNDEFINED\",\"priceTotalInPence\":" + total + ","
+                + "\"pizzasInOrder\":[{\"name\":\"Margarita\",\"priceInPence\":1000}],"
+                + "\"creditCardInformation\":{\"creditCardNumber\":\"0869849637299280\","
+                + "\"creditCardExpiry\":\"12/99\",\"cvv\":\"074\"}}";
+    }
+
+    // a stub REST API with one restaurant, a no-fly zone out of the way and two orders, one with the wrong total
+    @BeforeEach
+    public void startServers() throws IOException {
+        restApi = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        serve("/isAlive", "true");
+        serve("/restaurants", "[{\"name\":\"Civerinos Slice\",\"location\":{\"lng\":-3.1912869215011597,"
+                + "\"lat\":55.945535152517735},\"openingDays\":[\"WEDNESDAY\"],"
+                + "\"menu\":[{\"name\":\"Margarita\",\"priceInPence\":1000}]}]");
+        serve("/noFlyZones", "[{\"name\":\"Zone\",\"vertices\":[{\"lng\":-3.17,\"lat\":55.93},"
+                + "{\"lng\":-3.16,\"lat\":55.93},{\"lng\":-3.16,\"lat\":55.92},{\"lng\":-3.17,\"lat\":55.93}]}]");
+        serve("/centralArea", "{\"name\":\"central\",\"vertices\":[{\"lng\":-3.192473,\"lat\":55.946233},"
+                + "{\"lng\":-3.192473,\"lat\":55.942617},{\"lng\":-3.184319,\"lat\":55.942617},"
+                + "{\"lng\":-3.184319,\"lat\":55.946233}]}");
+        serve("/orders/" + DATE, "[" + orderJson("1818E811", 1100) + "," + orderJson("3D9C1724", 1200) + "]");
+        restApi.start();
+
+        System.setProperty(OutputSink.RESULT_DIR_PROPERTY, resultDir.toString());
+        System.setProperty(PathCache.CACHE_DIR_PROPERTY, cacheDir.toString());
+        planningServer = new PlanningServer(new LngLat(-3.186874, 55.944494),
+                "http://127.0.0.1:" + restApi.getAddress().getPort());
+        planningUrl = "http://127.0.0.1:" + planningServer.start(0);
+    }
+
+    @AfterEach
+    public void stopServers() {
+        if (planningServer != null) {
+            planningServer.stop();
+        }
+        restApi.stop(0);
+        System.clearProperty(OutputSink.RESULT_DIR_PROPERTY);
+        System.clearProperty(PathCache.CACHE_DIR_PROPERTY);
+    }
+
+    private void serve(String path, String body) {
+        restApi.createContext(path, exchange -> {
+            byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+            exchange.sendResponseHeaders(200, bytes.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(bytes);
+            }
+        });
+    }
+
+    private HttpResponse<String> get(String path) throws IOException, InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder().uri(URI.create(planningUrl + path)).build();
+        return client.send(request, HttpResponse.BodyHandlers.ofString());
+    }
+
+    @Test
+    public void testPlanSummary() throws IOException, InterruptedException {
+        HttpResponse<String> response = get("/plan/" + DATE);
+
+        assertEquals(200, response.statusCode());
+        assertEquals("{\"date\":\"" + DATE + "\",\"orders\":2,\"valid\":1,\"delivered\":1}", response.body());
+        assertTrue(Files.exists(resultDir.resolve("deliveries-" + DATE + ".json")));
+        assertTrue(Files.exists(resultDir.resolve("drone-" + DATE + ".geojson")));
+    }
+
+    @Test
+    public void testPlanFlightPath() throws IOException, InterruptedException {
+        HttpResponse<String> response = get("/plan/" + DATE + "/flightpath");
+
+        assertEquals(200, response.statusCode());
+        assertEquals("application/json", response.headers().firstValue("Content-Type").orElse(""));
+        assertEquals(Files.readString(resultDir.resolve("flightpath-" + DATE + ".json")), response.body());
+        assertTrue(response.body().startsWith("[{\"orderNo\":\"1818E811\",\"fromLongitude\":-3.186874,"));
+        assertFalse(response.body().contains("3D9C1724"));
+    }
+
+    @Test
+    public void testUnreadableResultFile() throws IOException, InterruptedException {
+        // a directory where the flightpath file should be, so it can be neither written nor read
+        Files.createDirectory(resultDir.resolve("flightpath-" + DATE + ".json"));
+        HttpResponse<String> response = get("/plan/" + DATE + "/flightpath");
+
+        assertEquals(500, response.statusCode());
+        assertEquals("Failed to read the result file for " + DATE, response.body());
+    }
+
+    @Test
+    public void testBadDate() throws IOException, InterruptedException {
+        HttpResponse<String> response = get("/plan/2023-15-45");
+
+        assertEquals(400, response.statusCode());
+        assertEquals("Incorrect date format. Expected YYYY-MM-DD, got 2023-15-45", response.body());
+    }
+
+    @Test
+    public void testBadPath() throws IOException, InterruptedException {
+        assertEquals(404, get("/plan/" + DATE + "/route").statusCode());
+        assertEquals(404, get("/plan/" + DATE + "/flightpath/extra").statusCode());
+    }
+}
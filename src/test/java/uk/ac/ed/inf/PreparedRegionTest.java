@@ -0,0 +1,64 @@
+package uk.ac.ed.inf;
+
+import org.junit.jupiter.api.RepeatedTest;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.Assert.*;
+
+import uk.ac.ed.inf.ilp.data.LngLat;
+import uk.ac.ed.inf.ilp.data.NamedRegion;
+
+import java.util.Random;
+
+public class PreparedRegionTest {
+
+    @RepeatedTest(100)
+    public void testMatchesIsInRegion() {
+        LngLatHandler handler = new LngLatHandler();
+        NamedRegion[] noFlyZones = PathFindingTest.createNoFlyZones();
+        PreparedNoFlyZones prepared = new PreparedNoFlyZones(noFlyZones);
+        Random random = new Random();
+
+        for (int i = 0; i < 1000; i++) {
+            LngLat point = new LngLat(-3.192 + random.nextDouble() * 0.006, 55.942 + random.nextDouble() * 0.004);
+            boolean expected = false;
+            for (int j = 0; j < noFlyZones.length; j++) {
+                boolean inRegion = handler.isInRegion(point, noFlyZones[j]);
+                assertEquals(inRegion, prepared.getRegions()[j].contains(point));
+                expected |= inRegion;
+            }
+            assertEquals(expected, prepared.contains(point));
+        }
+    }
+
+    @Test
+    public void testVerticesAreInRegion() {
+        NamedRegion[] noFlyZones = PathFindingTest.createNoFlyZones();
+        for (NamedRegion zone : noFlyZones) {
+            PreparedRegion region = new PreparedRegion(zone);
+            for (LngLat vertex : zone.vertices()) {
+                assertTrue(region.contains(vertex));
+            }
+        }
+    }
+
+    @Test
+    public void testOutsideBoundingBox() {
+        double x1 = -3.192473;
+        double x2 = -3.184319;
+        double y1 = 55.946233;
+        double y2 = 55.942617;
+
+        LngLat[] central = {
+            new LngLat(x1, y1),
+            new LngLat(x1, y2),
+            new LngLat(x2, y2),
+            new LngLat(x2, y1)
+        };
+        PreparedRegion region = new PreparedRegion(new NamedRegion("central", central));
+
+        assertFalse(region.boxContains(x1 - 0.001, y1));
+        assertFalse(region.contains(x1 - 0.001, y1));
+        assertTrue(region.contains((x1 + x2) / 2, (y1 + y2) / 2));
+    }
+}
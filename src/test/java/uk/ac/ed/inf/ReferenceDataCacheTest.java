@@ -0,0 +1,133 @@
+package uk.ac.ed.inf;
+
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.junit.Assert.*;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.http.HttpClient;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+public class ReferenceDataCacheTest {
+
+    private static final String ETAG = "\"v1\"";
+    private static final Instant NOW = Instant.parse("2023-11-15T12:00:00Z");
+
+    @TempDir
+    Path cacheDir;
+
+    private final HttpClient client = HttpClient.newHttpClient();
+    private final AtomicInteger requests = new AtomicInteger();
+    private final AtomicInteger notModified = new AtomicInteger();
+    private HttpServer server;
+    private String url;
+
+    // serves a fixed body with an ETag, answering 304 when the client already has it
+    @BeforeEach
+    public void startServer() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/restaurants", exchange -> {
+            requests.incrementAndGet();
+            exchange.getResponseHeaders().add("ETag", ETAG);
+            if (ETAG.equals(exchange.getRequestHeaders().getFirst("If-None-Match"))) {
+                notModified.incrementAndGet();
+                exchange.sendResponseHeaders(304, -1);
+                exchange.close();
+                return;
+            }
+            byte[] body = "[]".getBytes(StandardCharsets.UTF_8);
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        });
+        server.start();
+        url = "http://127.0.0.1:" + server.getAddress().getPort() + "/restaurants";
+    }
+
+    @AfterEach
+    public void stopServer() {
+        server.stop(0);
+    }
+
+    private ReferenceDataCache cache(Duration ttl, boolean offline, Instant now) {
+        return new ReferenceDataCache(cacheDir, ttl, offline, Clock.fixed(now, ZoneOffset.UTC));
+    }
+
+    private String fetch(ReferenceDataCache cache) {
+        return new String(cache.fetch(client, url, "Restaurants").join(), StandardCharsets.UTF_8);
+    }
+
+    @Test
+    public void testFreshCopyServedWithoutRequest() {
+        assertEquals("[]", fetch(cache(Duration.ofMinutes(10), false, NOW)));
+        assertEquals("[]", fetch(cache(Duration.ofMinutes(10), false, NOW.plusSeconds(60))));
+
+        assertEquals(1, requests.get());
+    }
+
+    @Test
+    public void testStaleCopyRevalidated() {
+        assertEquals("[]", fetch(cache(Duration.ofMinutes(10), false, NOW)));
+        assertEquals("[]", fetch(cache(Duration.ofMinutes(10), false, NOW.plusSeconds(3600))));
+        // the 304 restarts the TTL
+        assertEquals("[]", fetch(cache(Duration.ofMinutes(10), false, NOW.plusSeconds(3660))));
+
+        assertEquals(2, requests.get());
+        assertEquals(1, notModified.get());
+    }
+
+    @Test
+    public void testLastGoodCopyServedWhenServerDown() {
+        assertEquals("[]", fetch(cache(Duration.ZERO, false, NOW)));
+        server.stop(0);
+
+        assertEquals("[]", fetch(cache(Duration.ZERO, false, NOW.plusSeconds(60))));
+    }
+
+    @Test
+    public void testOfflineModeSkipsServer() {
+        assertEquals("[]", fetch(cache(Duration.ZERO, false, NOW)));
+        assertEquals("[]", fetch(cache(Duration.ZERO, true, NOW.plusSeconds(86400))));
+
+        assertEquals(1, requests.get());
+    }
+
+    @Test
+    public void testNoCopyAndNoServer() {
+        server.stop(0);
+
+        assertThrows(CompletionException.class, () -> fetch(cache(Duration.ZERO, true, NOW)));
+    }
+
+    @Test
+    public void testFailedSaveLeavesNoTemporaryFile() throws IOException {
+        // a non-empty directory where the cached copy should be makes the move fail
+        Path cacheFile = Files.createDirectories(
+                cacheDir.resolve(UUID.nameUUIDFromBytes(url.getBytes(StandardCharsets.UTF_8)) + ".ref"));
+        Files.createFile(cacheFile.resolve("blocker"));
+
+        assertEquals("[]", fetch(cache(Duration.ofMinutes(10), false, NOW)));
+        try (Stream<Path> files = Files.list(cacheDir)) {
+            assertEquals(List.of(cacheFile), files.toList());
+        }
+    }
+}
@@ -0,0 +1,117 @@
+package uk.ac.ed.inf;
+
+import org.junit.jupiter.api.RepeatedTest;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.Assert.*;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import uk.ac.ed.inf.ilp.data.LngLat;
+import uk.ac.ed.inf.ilp.data.NamedRegion;
+
+import java.util.Random;
+
+public class RegionIndexTest {
+
+    public static NamedRegion createCentralArea() {
+        double x1 = -3.192473;
+        double x2 = -3.184319;
+        double y1 = 55.946233;
+        double y2 = 55.942617;
+
+        LngLat[] central = {
+            new LngLat(x1, y1),
+            new LngLat(x1, y2),
+            new LngLat(x2, y2),
+            new LngLat(x2, y1)
+        };
+        return new NamedRegion("central", central);
+    }
+
+    @RepeatedTest(100)
+    public void testNoFlyZonesMatchIsInRegion() {
+        LngLatHandler handler = new LngLatHandler();
+        NamedRegion[] noFlyZones = PathFindingTest.createNoFlyZones();
+        RegionIndex index = new RegionIndex(noFlyZones);
+        Random random = new Random();
+
+        for (int i = 0; i < 1000; i++) {
+            LngLat point = new LngLat(-3.192 + random.nextDouble() * 0.006, 55.942 + random.nextDouble() * 0.004);
+            boolean expected = false;
+            for (NamedRegion zone : noFlyZones) {
+                expected |= handler.isInRegion(point, zone);
+            }
+            assertEquals(expected, handler.isInRegion(point, index));
+        }
+    }
+
+    @RepeatedTest(100)
+    public void testCentralAreaMatchesIsInRegion() {
+        LngLatHandler handler = new LngLatHandler();
+        NamedRegion centralArea = createCentralArea();
+        RegionIndex index = new RegionIndex(new NamedRegion[] { centralArea }, 0.0005);
+        Random random = new Random();
+
+        for (int i = 0; i < 1000; i++) {
+            LngLat point = new LngLat(-3.194 + random.nextDouble() * 0.012, 55.941 + random.nextDouble() * 0.007);
+            assertEquals(handler.isInRegion(point, centralArea), index.contains(point));
+        }
+    }
+
+    @Test
+    public void testBorderAndVertices() {
+        NamedRegion centralArea = createCentralArea();
+        RegionIndex index = new RegionIndex(new NamedRegion[] { centralArea });
+
+        for (LngLat vertex : centralArea.vertices()) {
+            assertTrue(index.contains(vertex));
+        }
+        LngLatHandler handler = new LngLatHandler();
+        LngLat onBorder = new LngLat(-3.184319, 55.944);
+        assertEquals(handler.isInRegion(onBorder, centralArea), index.contains(onBorder));
+        assertFalse(index.contains(-3.1925, 55.944));
+    }
+
+    @Test
+    public void testNoRegions() {
+        RegionIndex index = new RegionIndex(new NamedRegion[0]);
+        assertFalse(index.contains(-3.186874, 55.944494));
+    }
+
+    @Test
+    public void testHugeRegionIsCapped() {
+        // at one drone move per cell this triangle would need about 10^12 cells
+        LngLat[] vertices = {
+            new LngLat(-90, -45),
+            new LngLat(90, -45),
+            new LngLat(0, 45)
+        };
+        NamedRegion region = new NamedRegion("huge", vertices);
+        RegionIndex index = new RegionIndex(new NamedRegion[] { region });
+        LngLatHandler handler = new LngLatHandler();
+        Random random = new Random();
+
+        for (int i = 0; i < 1000; i++) {
+            LngLat point = new LngLat(-100 + random.nextDouble() * 200, -50 + random.nextDouble() * 100);
+            assertEquals(handler.isInRegion(point, region), index.contains(point));
+        }
+        assertTrue(index.contains(new LngLat(0, 0)));
+        assertFalse(index.contains(new LngLat(-89, 44)));
+    }
+
+    @Test
+    public void testFitCellSize() {
+        assertEquals(0.00015, RegionIndex.fitCellSize(0.00015, 0.01, 0.01), 0);
+        double cellSize = RegionIndex.fitCellSize(0.00015, 360, 180);
+        assertTrue((360 / cellSize + 1) * (180 / cellSize + 1) <= RegionIndex.MAX_CELLS);
+        assertTrue((360 / cellSize * 2 + 1) * (180 / cellSize * 2 + 1) > RegionIndex.MAX_CELLS);
+    }
+
+    @Test
+    public void testInvalidCellSize() {
+        NamedRegion[] regions = { createCentralArea() };
+        for (double cellSize : new double[] { 0, -0.00015, Double.NaN }) {
+            assertThrows(IllegalArgumentException.class, () -> new RegionIndex(regions, cellSize));
+        }
+    }
+}
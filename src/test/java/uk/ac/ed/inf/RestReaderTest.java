@@ -0,0 +1,240 @@
+package uk.ac.ed.inf;
+
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.junit.Assert.*;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import uk.ac.ed.inf.ilp.constant.OrderStatus;
+import uk.ac.ed.inf.ilp.data.Order;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.http.HttpTimeoutException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+public class RestReaderTest {
+
+    @TempDir
+    Path cacheDir;
+
+    private static String orderJson(String orderNo) {
+        return "{\"orderNo\":\"" + orderNo + "\",\"orderDate\":\"2023-11-15\",\"orderStatus\":\"UNDEFINED\","
+                + "\"orderValidationCode\":\"UNDEFINED\",\"priceTotalInPence\":1100,"
+                + "\"pizzasInOrder\":[{\"name\":\"Margarita\",\"priceInPence\":1000}],"
+                + "\"creditCardInformation\":{\"creditCardNumber\":\"0869849637299280\","
+                + "\"creditCardExpiry\":\"12/29\",\"cvv\":\"074\"}}";
+    }
+
+    private static InputStream stream(String json) {
+        return new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void testReadOrdersOneAtATime() throws IOException {
+        String json = "[" + orderJson("1818E811") + ",\n" + orderJson("3D9C1724") + "]";
+        List<Order> orders = new ArrayList<>();
+
+        int count = RestReader.readOrders(stream(json), orders::add);
+
+        assertEquals(2, count);
+        assertEquals("1818E811", orders.get(0).getOrderNo());
+        assertEquals("3D9C1724", orders.get(1).getOrderNo());
+        assertEquals(LocalDate.of(2023, 11, 15), orders.get(1).getOrderDate());
+        assertEquals(OrderStatus.UNDEFINED, orders.get(1).getOrderStatus());
+        assertEquals("074", orders.get(1).getCreditCardInformation().getCvv());
+    }
+
+    @Test
+    public void testReadOrdersHandsOnBeforeTheEnd() {
+        // the array is never closed, so every order before the broken one must already have been handed on
+        String json = "[" + orderJson("1818E811") + "," + orderJson("3D9C1724") + ",{\"orderNo\":";
+        List<Order> orders = new ArrayList<>();
+
+        assertThrows(IOException.class, () -> RestReader.readOrders(stream(json), orders::add));
+        assertEquals(2, orders.size());
+    }
+
+    @Test
+    public void testReadNoOrders() throws IOException {
+        assertEquals(0, RestReader.readOrders(stream("[]"), order -> fail()));
+    }
+
+    // while set, the server accepts requests but does not answer them until it is released
+    private volatile CountDownLatch hangUntil;
+
+    private HttpServer startServer(int ordersStatus) throws IOException {
+        HttpServer server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.setExecutor(Executors.newCachedThreadPool());
+        serve(server, "/isAlive", 200, "true");
+        serve(server, "/restaurants", 200, "[{\"name\":\"Civerinos Slice\",\"location\":{\"lng\":-3.1912869215011597,"
+                + "\"lat\":55.945535152517735},\"openingDays\":[\"MONDAY\"],"
+                + "\"menu\":[{\"name\":\"Margarita\",\"priceInPence\":1000}]}]");
+        serve(server, "/noFlyZones", 200, "[{\"name\":\"Zone\",\"vertices\":[{\"lng\":-3.19,\"lat\":55.94},"
+                + "{\"lng\":-3.18,\"lat\":55.94},{\"lng\":-3.18,\"lat\":55.95},{\"lng\":-3.19,\"lat\":55.94}]}]");
+        serve(server, "/centralArea", 200, "{\"name\":\"central\",\"vertices\":[{\"lng\":-3.19,\"lat\":55.94},"
+                + "{\"lng\":-3.18,\"lat\":55.94},{\"lng\":-3.18,\"lat\":55.95},{\"lng\":-3.19,\"lat\":55.94}]}");
+        serve(server, "/orders/2023-11-15", ordersStatus, "[" + orderJson("1818E811") + "," + orderJson("3D9C1724") + "]");
+        server.start();
+        return server;
+    }
+
+    private void serve(HttpServer server, String path, int status, String body) {
+        server.createContext(path, exchange -> {
+            CountDownLatch latch = hangUntil;
+            if (latch != null) {
+                try {
+                    latch.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+            exchange.sendResponseHeaders(status, bytes.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(bytes);
+            }
+        });
+    }
+
+    private ReferenceDataCache referenceData() {
+        return new ReferenceDataCache(cacheDir, Duration.ZERO, false, Clock.systemUTC());
+    }
+
+    @Test
+    public void testFetchDaySnapshot() throws IOException {
+        HttpServer server = startServer(200);
+        try {
+            String url = "http://127.0.0.1:" + server.getAddress().getPort();
+            DaySnapshot snapshot = RestReader.fetchDaySnapshot("2023-11-15", url, referenceData()).join();
+
+            assertTrue(snapshot.isAlive());
+            assertEquals("Civerinos Slice", snapshot.getRestaurants()[0].name());
+            assertEquals(4, snapshot.getNoFlyZones()[0].vertices().length);
+            assertEquals("central", snapshot.getCentralArea().name());
+
+            List<Order> orders = new ArrayList<>();
+            assertEquals(2, snapshot.readOrders(orders::add));
+            assertEquals("3D9C1724", orders.get(1).getOrderNo());
+        } finally {
+            server.stop(0);
+        }
+    }
+
+    @Test
+    public void testOrdersBodyClosedWhenReferenceDataFails() {
+        AtomicBoolean closed = new AtomicBoolean();
+        InputStream ordersBody = new ByteArrayInputStream(new byte[0]) {
+            @Override
+            public void close() {
+                closed.set(true);
+            }
+        };
+        CompletableFuture<DaySnapshot> reference = new CompletableFuture<>();
+        CompletableFuture<InputStream> orders = new CompletableFuture<>();
+
+        CompletableFuture<DaySnapshot> day = RestReader.combine(reference, orders);
+        reference.completeExceptionally(new IOException("no reference data"));
+        assertFalse(closed.get());
+        // the orders body arriving after the failure is closed as well
+        orders.complete(ordersBody);
+
+        assertThrows(CompletionException.class, day::join);
+        assertTrue(closed.get());
+    }
+
+    @Test
+    public void testFetchDaySnapshotFailsOnBadStatus() throws IOException {
+        HttpServer server = startServer(404);
+        try {
+            String url = "http://127.0.0.1:" + server.getAddress().getPort();
+            CompletionException e = assertThrows(CompletionException.class,
+                    () -> RestReader.fetchDaySnapshot("2023-11-15", url, referenceData()).join());
+            assertTrue(e.getCause().getMessage().contains("Orders"));
+        } finally {
+            server.stop(0);
+        }
+    }
+
+    @Test
+    public void testFetchReferenceDataFromCacheWhenServerStopped() throws IOException {
+        HttpServer server = startServer(200);
+        String url = "http://127.0.0.1:" + server.getAddress().getPort();
+        try {
+            // fills the cache with the last good copy
+            DaySnapshot snapshot = RestReader.fetchDaySnapshot("2023-11-15", url, referenceData()).join();
+            assertEquals(2, snapshot.readOrders(order -> { }));
+        } finally {
+            server.stop(0);
+        }
+
+        // every copy is out of date, so each is asked for again and the cache answers when nothing does
+        DaySnapshot reference = RestReader.fetchReferenceData(url, referenceData()).join();
+        assertTrue(reference.isAlive());
+        assertEquals("Civerinos Slice", reference.getRestaurants()[0].name());
+        assertEquals("central", reference.getCentralArea().name());
+
+        ReferenceDataCache offline = new ReferenceDataCache(cacheDir, Duration.ZERO, true, Clock.systemUTC());
+        reference = RestReader.fetchReferenceData(url, offline).join();
+        assertTrue(reference.isAlive());
+        assertEquals(4, reference.getNoFlyZones()[0].vertices().length);
+
+        // the orders are never cached, so a day still cannot be planned without the server
+        assertThrows(CompletionException.class, () -> RestReader.fetchDaySnapshot("2023-11-15", url, offline).join());
+    }
+
+    @Test
+    public void testFetchReferenceDataFailsWithoutCache() throws IOException {
+        HttpServer server = startServer(200);
+        String url = "http://127.0.0.1:" + server.getAddress().getPort();
+        server.stop(0);
+
+        assertThrows(CompletionException.class, () -> RestReader.fetchReferenceData(url, referenceData()).join());
+    }
+
+    @Test
+    public void testFetchReferenceDataFromCacheWhenServerHangs() throws IOException {
+        HttpServer server = startServer(200);
+        String url = "http://127.0.0.1:" + server.getAddress().getPort();
+        try {
+            DaySnapshot snapshot = RestReader.fetchDaySnapshot("2023-11-15", url, referenceData()).join();
+            assertEquals(2, snapshot.readOrders(order -> { }));
+
+            hangUntil = new CountDownLatch(1);
+            System.setProperty(RestReader.TIMEOUT_PROPERTY, "1");
+            long start = System.nanoTime();
+
+            // every request times out, and the cache answers for the reference data
+            DaySnapshot reference = RestReader.fetchReferenceData(url, referenceData()).join();
+            assertTrue(reference.isAlive());
+            assertEquals("Civerinos Slice", reference.getRestaurants()[0].name());
+            assertTrue(System.nanoTime() - start < Duration.ofSeconds(5).toNanos());
+
+            CompletionException e = assertThrows(CompletionException.class,
+                    () -> RestReader.fetchDaySnapshot("2023-11-15", url, referenceData()).join());
+            assertTrue(e.getCause() instanceof HttpTimeoutException);
+        } finally {
+            System.clearProperty(RestReader.TIMEOUT_PROPERTY);
+            if (hangUntil != null) {
+                hangUntil.countDown();
+            }
+            server.stop(0);
+        }
+    }
+}
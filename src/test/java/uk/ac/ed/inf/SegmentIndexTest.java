@@ -0,0 +1,98 @@
+package uk.ac.ed.inf;
+
+import org.junit.jupiter.api.RepeatedTest;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.Assert.*;
+
+import uk.ac.ed.inf.ilp.data.LngLat;
+import uk.ac.ed.inf.ilp.data.NamedRegion;
+
+import java.util.Random;
+
+public class SegmentIndexTest {
+
+    private static NamedRegion createSquare() {
+        return new NamedRegion("square", new LngLat[] {
+            new LngLat(0.0, 0.0),
+            new LngLat(0.001, 0.0),
+            new LngLat(0.001, 0.001),
+            new LngLat(0.0, 0.001)
+        });
+    }
+
+    @Test
+    public void testCrossesCorner() {
+        SegmentIndex index = new SegmentIndex(new NamedRegion[] { createSquare() });
+
+        // both ends are outside the square but the move cuts across its corner
+        assertTrue(index.crosses(-0.0001, 0.00015, 0.00015, -0.0001));
+        assertTrue(new PreparedNoFlyZones(new NamedRegion[] { createSquare() })
+                .blocksMove(-0.0001, 0.00015, 0.00015, -0.0001));
+    }
+
+    @Test
+    public void testMissesSquare() {
+        SegmentIndex index = new SegmentIndex(new NamedRegion[] { createSquare() });
+
+        assertFalse(index.crosses(-0.0002, -0.0001, -0.0001, -0.0002));
+        assertFalse(index.crosses(0.002, 0.002, 0.0021, 0.0021));
+    }
+
+    @Test
+    public void testTouchingBorder() {
+        SegmentIndex index = new SegmentIndex(new NamedRegion[] { createSquare() });
+
+        assertTrue(index.crosses(-0.0001, 0.0005, 0.0, 0.0005));
+        assertTrue(index.crosses(0.0005, -0.0001, 0.0005, 0.0));
+    }
+
+    @Test
+    public void testNoRegions() {
+        SegmentIndex index = new SegmentIndex(new NamedRegion[0]);
+        assertFalse(index.crosses(0, 0, 1, 1));
+    }
+
+    @RepeatedTest(100)
+    public void testMatchesBruteForce() {
+        NamedRegion[] noFlyZones = PathFindingTest.createNoFlyZones();
+        SegmentIndex index = new SegmentIndex(noFlyZones);
+        Random random = new Random();
+
+        for (int i = 0; i < 200; i++) {
+            double fromLng = -3.192 + random.nextDouble() * 0.006;
+            double fromLat = 55.942 + random.nextDouble() * 0.004;
+            double angle = Math.toRadians(random.nextInt(16) * 22.5);
+            double toLng = fromLng + 0.00015 * Math.cos(angle);
+            double toLat = fromLat + 0.00015 * Math.sin(angle);
+
+            boolean expected = false;
+            for (NamedRegion zone : noFlyZones) {
+                LngLat[] vertices = zone.vertices();
+                for (int j = 0; j < vertices.length; j++) {
+                    LngLat p1 = vertices[j];
+                    LngLat p2 = vertices[(j + 1) % vertices.length];
+                    expected |= SegmentIndex.segmentsIntersect(fromLng, fromLat, toLng, toLat,
+                            p1.lng(), p1.lat(), p2.lng(), p2.lat());
+                }
+            }
+            assertEquals(expected, index.crosses(fromLng, fromLat, toLng, toLat));
+        }
+    }
+
+    @Test
+    public void testHugeRegionIsCapped() {
+        // at two drone moves per cell this square would need about 10^12 cells
+        SegmentIndex index = new SegmentIndex(new NamedRegion[] { new NamedRegion("huge", new LngLat[] {
+            new LngLat(-90, -45),
+            new LngLat(90, -45),
+            new LngLat(90, 45),
+            new LngLat(-90, 45)
+        }) });
+
+        assertTrue(index.crosses(89.9999, 0, 90.0001, 0));
+        assertTrue(index.crosses(0, -45.0001, 0.0001, -44.9999));
+        assertFalse(index.crosses(0, 0, 0.00015, 0));
+        assertFalse(index.crosses(90.0001, 0, 90.0002, 0));
+    }
+}